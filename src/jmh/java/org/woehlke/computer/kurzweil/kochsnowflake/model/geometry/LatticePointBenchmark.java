@@ -0,0 +1,68 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.geometry;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochSubdivision;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subdivides all Segments of a Level once per Operation: with LatticePoint.getNewPoints, one Object per Point,
+ * and with KochSubdivision.subdivide on the primitive Arrays of LatticePointArray.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see LatticePoint
+ * @see KochSubdivision
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LatticePointBenchmark {
+
+    /**
+     * The Level whose Segments are subdivided.
+     */
+    @Param({"1", "3", "5", "7"})
+    private int level;
+
+    private LatticePoint[] points;
+
+    private LatticePointArray vertices;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        LinkedListNodeContainer container = new LinkedListNodeContainer(LatticeDimension.of(960, 702));
+        container.start();
+        for (int i = 0; i < this.level; i++) {
+            container.step();
+        }
+        this.vertices = container.getVertices();
+        this.points = new LatticePoint[this.vertices.getSize()];
+        for (int i = 0; i < this.points.length; i++) {
+            this.points[i] = this.vertices.getLatticePoint(i);
+        }
+    }
+
+    @Benchmark
+    public void getNewPoints(Blackhole blackhole) {
+        for (int i = 0; i < this.points.length; i++) {
+            LatticePoint next = this.points[this.vertices.next(i)];
+            blackhole.consume(this.points[i].getNewPoints(next));
+        }
+    }
+
+    @Benchmark
+    public LatticePointArray subdivide() {
+        return KochSubdivision.subdivide(this.vertices);
+    }
+}
@@ -0,0 +1,64 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import org.openjdk.jmh.annotations.*;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One Operation is one LinkedListNodeContainer.step from level - 1 to level.
+ *
+ * After each Step the Snapshot of level - 1 is published again, by the same atomic Swap a Step uses,
+ * so every Operation steps from the same Level and no Setup per Invocation is needed.
+ * The Subdivision Kernel is a Parameter, vector needs --add-modules jdk.incubator.vector.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see LinkedListNodeContainer
+ * @see KochLevel
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkedListNodeContainerBenchmark {
+
+    /**
+     * The Level computed by the Step.
+     */
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9"})
+    private int level;
+
+    @Param({"scalar"})
+    private String kernel;
+
+    private LinkedListNodeContainer container;
+
+    private KochLevel base;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.container = new LinkedListNodeContainer(LatticeDimension.of(960, 702));
+        this.container.setKernel(KochSubdivision.kernel(this.kernel));
+        this.container.start();
+        for (int i = 1; i < this.level; i++) {
+            this.container.step();
+        }
+        this.base = this.container.getSnapshot();
+    }
+
+    @Benchmark
+    public KochLevel step() {
+        this.container.step();
+        KochLevel next = this.container.getSnapshot();
+        this.container.publish(next, this.base);
+        return next;
+    }
+}
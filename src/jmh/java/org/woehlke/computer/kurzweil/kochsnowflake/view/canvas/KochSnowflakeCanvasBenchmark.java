@@ -0,0 +1,118 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.canvas;
+
+import org.openjdk.jmh.annotations.*;
+import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.KochSnowflakeModel;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KochSnowflakeCanvas.paint into an offscreen Graphics2D, headless and without a Frame.
+ *
+ * paint renders the Level anew, because the Back Buffer of the Canvas is dropped before each Call
+ * and the RasterCache is disabled; repaint only blits the Back Buffer, like a Repaint of the same Generation.
+ * The Renderer is a Parameter: Java2D, or the parallel software Rasterizer.
+ * The Configuration is built in Code with the Values of the shipped application.yml, because on the Test Classpath
+ * of the jmh Profile /application.yml is the one of the Tests.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochSnowflakeCanvas
+ * @see KochSnowflakeRenderer
+ * @see KochSnowflakeRasterizer
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class KochSnowflakeCanvasBenchmark {
+
+    /**
+     * The Level painted.
+     */
+    @Param({"1", "3", "5", "7"})
+    private int level;
+
+    @Param({"false", "true"})
+    private boolean softwareRasterizer;
+
+    private KochSnowflakeModel model;
+
+    private KochSnowflakeCanvas canvas;
+
+    private BufferedImage offscreen;
+
+    private Graphics2D graphics;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ComputerKurzweilProperties config = configuration(this.softwareRasterizer);
+        this.model = new KochSnowflakeModel(config);
+        this.model.start();
+        for (int i = 0; i < this.level; i++) {
+            this.model.step();
+        }
+        this.canvas = new KochSnowflakeCanvas(this.model, config);
+        int width = this.model.getWorldDimensions().getWidth();
+        int height = this.model.getWorldDimensions().getHeight();
+        this.offscreen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.graphics = this.offscreen.createGraphics();
+    }
+
+    /**
+     * The kochsnowflake Section of application.yml, without RasterCache.
+     */
+    static ComputerKurzweilProperties configuration(boolean softwareRasterizer) {
+        ComputerKurzweilProperties config = new ComputerKurzweilProperties();
+        ComputerKurzweilProperties.Kochsnowflake.View view = config.getKochsnowflake().getView();
+        view.setTitle("Koch Snowflake");
+        view.setSubtitle("a fractal curve with self self-similarity");
+        view.setCopyright("(C) 2023 Thomas Woehlke");
+        view.setWidth(320);
+        view.setHeight(234);
+        view.setScale(3);
+        view.setRasterCacheMegabytes(0);
+        view.setSoftwareRasterizer(softwareRasterizer);
+        ComputerKurzweilProperties.Kochsnowflake.Control control = config.getKochsnowflake().getControl();
+        control.setThreadSleepTime(300000);
+        control.setMaxIterations(6);
+        control.setTargetFps(30);
+        control.setParallelismThreshold(65536);
+        control.setSubdivisionKernel("scalar");
+        control.setScratchDirectory("target/scratch");
+        control.setExactGeometry(false);
+        control.setLevelOfDetail(false);
+        control.setPixelTolerance(1.0d);
+        control.setProgressive(false);
+        control.setStepTimeBudget(30000);
+        control.setLsystem("");
+        return config;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        this.canvas.invalidateBackBuffer();
+        this.canvas.paint(this.graphics);
+        return this.offscreen;
+    }
+
+    @Benchmark
+    public BufferedImage repaint() {
+        this.canvas.paint(this.graphics);
+        return this.offscreen;
+    }
+}
@@ -1,27 +1,34 @@
 package org.woehlke.computer.kurzweil.kochsnowflake;
 
+import lombok.extern.log4j.Log4j2;
 import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
+import org.woehlke.computer.kurzweil.kochsnowflake.control.HeadlessRenderer;
 import org.woehlke.computer.kurzweil.kochsnowflake.view.KochSnowflakeFrame;
 
+import java.util.Arrays;
+
 /**
  * Koch Snowflake. A Fractal with self self-similarity.
  * (C) 2006 - 2022 Thomas Woehlke
  * @author Thomas Woehlke
  *
  * @see KochSnowflakeFrame
+ * @see HeadlessRenderer
  * @see ComputerKurzweilProperties
  *
  * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
  * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
  */
+@Log4j2
 public class KochSnowflakeApplication {
 
+    private static final String CONF = "application.yml";
+    private static final String JAR_PATH = "target/koch-snowflake.jar";
+
     private final KochSnowflakeFrame frame;
 
     private KochSnowflakeApplication() {
-        String conf = "application.yml";
-        String jarPath = "target/koch-snowflake.jar";
-        ComputerKurzweilProperties config = ComputerKurzweilProperties.propertiesFactory(conf,jarPath);
+        ComputerKurzweilProperties config = ComputerKurzweilProperties.propertiesFactory(CONF,JAR_PATH);
         frame = new KochSnowflakeFrame(config);
     }
 
@@ -31,9 +38,22 @@ public class KochSnowflakeApplication {
 
     /**
      * Starting the Application.
+     * With --headless no Window is opened, the Images are rendered into Files, see RenderJob:
+     * --headless --level N --size WxH --out file.png, --headless --level N --zoom Z --tiles directory, or --headless --jobs file
      * @param args CLI Parameter
      */
     public static void main(String[] args) {
+        if (Arrays.asList(args).contains("--headless")) {
+            System.setProperty("java.awt.headless", "true");
+            ComputerKurzweilProperties config = ComputerKurzweilProperties.propertiesFactory(CONF,JAR_PATH);
+            try {
+                new HeadlessRenderer(config).run(args);
+            } catch (Exception e) {
+                log.error("headless rendering failed: " + e.getMessage(), e);
+                System.exit(1);
+            }
+            return;
+        }
         KochSnowflakeApplication application = new KochSnowflakeApplication();
         application.start();
     }
@@ -12,6 +12,8 @@ import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeVector;
 import java.io.InputStream;
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -554,6 +556,12 @@ public class ComputerKurzweilProperties implements Serializable {
         @Valid
         public Control control = new Control();
 
+        /**
+         * L-Systems by Name, the one named in control.lsystem replaces the built-in Koch Rule.
+         */
+        @Valid
+        public Map<String, Lsystem> lsystems = new LinkedHashMap<>();
+
         @ToString
         @Getter
         @Setter
@@ -577,6 +585,14 @@ public class ComputerKurzweilProperties implements Serializable {
             @NotNull
             private Integer scale;
 
+            @NotNull
+            private Integer rasterCacheMegabytes;
+
+            /**
+             * Draw with the parallel KochSnowflakeRasterizer instead of Java2D.
+             */
+            @NotNull
+            private Boolean softwareRasterizer;
         }
 
         @ToString
@@ -589,6 +605,80 @@ public class ComputerKurzweilProperties implements Serializable {
 
             @NotNull
             private Integer maxIterations;
+
+            /**
+             * Most Repaints per Second of the Animation.
+             */
+            @NotNull
+            private Integer targetFps;
+
+            @NotNull
+            private Integer parallelismThreshold;
+
+            /**
+             * scalar or vector, vector needs --add-modules jdk.incubator.vector at Runtime.
+             */
+            @NotBlank
+            private String subdivisionKernel;
+
+            @NotBlank
+            private String scratchDirectory;
+
+            @NotNull
+            private Boolean exactGeometry;
+
+            /**
+             * Refine Segments only while they are longer than pixelTolerance on Screen.
+             */
+            @NotNull
+            private Boolean levelOfDetail;
+
+            @NotNull
+            private Double pixelTolerance;
+
+            /**
+             * Draw the new Level of a clicked Step Chunk by Chunk while it is computed.
+             */
+            @NotNull
+            private Boolean progressive;
+
+            /**
+             * Milliseconds after which a clicked Step is cancelled, 0 for no Limit.
+             */
+            @NotNull
+            private Integer stepTimeBudget;
+
+            @NotNull
+            private String lsystem;
+        }
+
+        @ToString
+        @Getter
+        @Setter
+        public static class Lsystem {
+
+            @NotBlank
+            private String axiom;
+
+            @NotNull
+            private Map<String, String> rules = new LinkedHashMap<>();
+
+            /**
+             * Turning Angle of + and - in Degrees.
+             */
+            @NotNull
+            private Double angle;
+
+            /**
+             * Turning Angle of + and - in the Axiom in Degrees, if it differs from angle, e.g. a Square Axiom.
+             */
+            private Double axiomAngle;
+
+            /**
+             * Length of a Segment relative to the Level before.
+             */
+            @NotNull
+            private Double lengthFactor;
         }
     }
 
@@ -0,0 +1,201 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.control;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.KochSnowflakeModel;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochLevel;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochLevelChunks;
+
+import javax.swing.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes the Steps requested by Mouse Clicks in a Background Thread, so the Event Dispatch Thread never waits for a Level.
+ *
+ * A Request computes the Level after the one shown when it was made. The Event Dispatch Thread only swaps in the
+ * finished Level, and only if the Model still shows the Level the Request started from.
+ * A Request for the same Level as the one in Flight is coalesced with it; a Request from another Level,
+ * e.g. after the Animation stepped in the Meantime, supersedes the stale one in Flight, which is cancelled.
+ * Each Request is cancelled when its Time Budget is spent, or by cancel.
+ * Progress is reported as Segments done out of Segments total, at most once per Percent.
+ *
+ * All Methods and all Calls of the StepListener happen on the Event Dispatch Thread.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochSnowflakeModel
+ * @see KochLevelChunks
+ * @see ControllerThread
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Log4j2
+@Getter
+public class BackgroundStepper {
+
+    /**
+     * Gets the Progress and the Outcome of the Requests, on the Event Dispatch Thread.
+     */
+    public interface StepListener {
+
+        /**
+         * @param total 0 if the Level is computed at once, without Progress
+         */
+        void progress(int level, long done, long total);
+
+        void finished(int level, long millis);
+
+        /**
+         * @param reason e.g. "Level 7 exceeded its Time Budget"
+         */
+        void cancelled(int level, String reason);
+    }
+
+    private final KochSnowflakeModel model;
+
+    private final StepListener listener;
+
+    /**
+     * Called whenever the Canvas should show new Chunks or a new Level.
+     */
+    private final Runnable repaint;
+
+    private final long timeBudgetMillis;
+
+    /**
+     * Whether the Canvas draws the Chunks of the Level in Flight.
+     */
+    private final boolean progressive;
+
+    private final ExecutorService executor;
+
+    private Request current;
+
+    public BackgroundStepper(
+        KochSnowflakeModel model, StepListener listener, Runnable repaint, long timeBudgetMillis, boolean progressive
+    ) {
+        this.model = model;
+        this.listener = listener;
+        this.repaint = repaint;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.progressive = progressive;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BackgroundStepper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests the Level after the one shown now.
+     */
+    public void requestStep() {
+        KochLevel base = this.model.getLinkedListNodeContainer().getSnapshot();
+        if (this.current != null) {
+            if (this.current.base == base && !this.current.chunks.isCancelled()) {
+                return;
+            }
+            this.current.chunks.cancel();
+        }
+        Request request = new Request(base);
+        this.current = request;
+        this.listener.progress(request.chunks.getLevel(), 0L, 0L);
+        this.executor.execute(() -> compute(request));
+    }
+
+    /**
+     * Cancels the Request in Flight, if there is one.
+     */
+    public void cancel() {
+        if (this.current != null) {
+            this.current.chunks.cancel();
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Runs in the Background Thread.
+     */
+    private void compute(Request request) {
+        try {
+            KochLevel next = this.model.computeStep(request.base, request.chunks);
+            SwingUtilities.invokeLater(() -> finish(request, next));
+        } catch (CancellationException e) {
+            SwingUtilities.invokeLater(() -> end(request, e.getMessage()));
+        } catch (RuntimeException e) {
+            log.error("step to Level " + request.chunks.getLevel() + " failed", e);
+            SwingUtilities.invokeLater(() -> end(request, "Level " + request.chunks.getLevel() + " failed: " + e.getMessage()));
+        }
+    }
+
+    private void finish(Request request, KochLevel next) {
+        boolean current = this.current == request;
+        if (current) {
+            this.current = null;
+        }
+        if (current && this.model.publishStep(request.base, next, request.chunks)) {
+            this.listener.finished(next.getLevel(), (System.nanoTime() - request.started) / 1000000L);
+        } else {
+            this.model.discardStep(request.chunks);
+            this.listener.cancelled(request.chunks.getLevel(), "Level " + request.chunks.getLevel() + " superseded");
+        }
+        this.repaint.run();
+    }
+
+    /**
+     * Reports only the Request in Flight: a superseded one must not overwrite the Status of the newer one.
+     */
+    private void end(Request request, String reason) {
+        if (this.current != request) {
+            return;
+        }
+        this.current = null;
+        this.listener.cancelled(request.chunks.getLevel(), reason);
+        this.repaint.run();
+    }
+
+    /**
+     * Called in the Background Thread after each Chunk: repaints, and reports the Progress when a Percent is full.
+     */
+    private void chunkDone(Request request) {
+        if (this.progressive) {
+            this.repaint.run();
+        }
+        KochLevelChunks chunks = request.chunks;
+        long total = chunks.getSegmentsTotal();
+        long done = chunks.getSegmentsDone();
+        long percent = total == 0 ? 0 : (100L * done) / total;
+        if (percent != request.reportedPercent.getAndSet(percent)) {
+            SwingUtilities.invokeLater(() -> {
+                if (this.current == request) {
+                    this.listener.progress(chunks.getLevel(), done, total);
+                }
+            });
+        }
+    }
+
+    private class Request {
+
+        private final KochLevel base;
+        private final KochLevelChunks chunks;
+        private final long started = System.nanoTime();
+        private final AtomicLong reportedPercent = new AtomicLong(0L);
+
+        Request(KochLevel base) {
+            this.base = base;
+            this.chunks = new KochLevelChunks(
+                base.getLevel() + 1, () -> chunkDone(this), progressive, timeBudgetMillis
+            );
+        }
+    }
+}
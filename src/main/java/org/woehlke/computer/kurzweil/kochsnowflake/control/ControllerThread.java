@@ -1,9 +1,28 @@
 package org.woehlke.computer.kurzweil.kochsnowflake.control;
 
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
 import org.woehlke.computer.kurzweil.kochsnowflake.model.KochSnowflakeModel;
 import org.woehlke.computer.kurzweil.kochsnowflake.view.KochSnowflakeFrame;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
+ * Animates the Levels 0 .. maxIterations on a ScheduledExecutorService instead of a sleeping Thread.
+ *
+ * The Step Task does one Step every threadSleepTime Milliseconds, the first one at once, like the sleeping Thread did.
+ * When it is scheduled again, after a Pause or while the Window was iconified, it waits the Rest of threadSleepTime
+ * since the last Step, so resuming does not skip the Wait for a Level.
+ * The Frame Task repaints at most targetFps Times per Second, and only if a Repaint was requested since the last Frame,
+ * so many Requests, e.g. from the Chunks of a progressive Step, are coalesced into one Repaint.
+ * Each Task has its own Scheduler Thread, so a long Step does not hold back the Frames showing its Progress.
+ * Steps can be paused, resumed and done one at a Time; exit cancels everything.
+ * While the Window is iconified both Tasks are cancelled, so a hidden Window costs no CPU.
+ *
  * Koch Snowflake. A Fractal with self self-similarity.
  * (C) 2006 - 2022 Thomas Woehlke
  * @author Thomas Woehlke
@@ -11,8 +30,7 @@ import org.woehlke.computer.kurzweil.kochsnowflake.view.KochSnowflakeFrame;
  * @see KochSnowflakeFrame
  * @see KochSnowflakeModel
  *
- * @see Thread
- * @see Runnable
+ * @see ScheduledExecutorService
  *
  * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
  * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
@@ -20,44 +38,203 @@ import org.woehlke.computer.kurzweil.kochsnowflake.view.KochSnowflakeFrame;
  * Date: 05.02.2006
  * Time: 00:36:20
  */
-public class ControllerThread extends Thread implements Runnable {
+@Log4j2
+@Getter
+public class ControllerThread {
 
     private volatile KochSnowflakeModel model;
-    private volatile KochSnowflakeFrame view;
 
-    private final int threadSleepTtime;
+    /**
+     * Called by the Frame Task, on the Frame Thread.
+     */
+    private final Runnable repaint;
+
+    private final int threadSleepTime;
     private final int maxIterations;
-    private volatile Boolean goOn;
+    private final int targetFps;
+
+    private final ScheduledExecutorService stepScheduler;
+    private final ScheduledExecutorService frameScheduler;
+
+    private final AtomicBoolean repaintRequested = new AtomicBoolean(false);
+
+    /**
+     * Steps done by the Step Task, which stops at maxIterations.
+     */
+    private int iterations = 0;
+
+    private boolean started = false;
+    private boolean paused = false;
+    private boolean iconified = false;
+    private boolean cancelled = false;
+
+    /**
+     * System.nanoTime at the End of the last Step, valid if stepped.
+     */
+    private volatile long lastStepNanos;
+    private volatile boolean stepped = false;
+
+    private volatile ScheduledFuture<?> stepTask;
+    private volatile ScheduledFuture<?> frameTask;
 
     public ControllerThread(KochSnowflakeFrame view) {
-        this.view = view;
-        this.model = this.view.getModel();
-        goOn = Boolean.TRUE;
-        this.threadSleepTtime = this.view.getConfig().getKochsnowflake().getControl().getThreadSleepTime();
-        this.maxIterations = this.view.getConfig().getKochsnowflake().getControl().getMaxIterations();
+        this(
+            view.getModel(),
+            view.getConfig().getKochsnowflake().getControl().getThreadSleepTime(),
+            view.getConfig().getKochsnowflake().getControl().getMaxIterations(),
+            view.getConfig().getKochsnowflake().getControl().getTargetFps(),
+            () -> {
+                view.getCanvas().repaint();
+                view.repaint();
+            }
+        );
     }
 
-    public void run() {
-        int i = 0;
-        while (i < this.maxIterations) {
-            i++;
-            this.model.step();
-            this.view.getCanvas().repaint();
-            this.view.repaint();
-            try {
-                sleep( this.threadSleepTtime);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+    /**
+     * @param repaint shows the Model, called by the Frame Task if a Repaint was requested
+     */
+    public ControllerThread(KochSnowflakeModel model, int threadSleepTime, int maxIterations, int targetFps, Runnable repaint) {
+        this.model = model;
+        this.repaint = repaint;
+        this.threadSleepTime = threadSleepTime;
+        this.maxIterations = maxIterations;
+        this.targetFps = Math.max(1, targetFps);
+        this.stepScheduler = scheduler("ControllerThread-Step");
+        this.frameScheduler = scheduler("ControllerThread-Frame");
+    }
+
+    private static ScheduledExecutorService scheduler(String name) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized void start() {
+        this.started = true;
+        schedule();
+    }
+
+    public synchronized void pause() {
+        this.paused = true;
+        schedule();
+    }
+
+    public synchronized void resume() {
+        this.paused = false;
+        schedule();
+    }
+
+    public synchronized void togglePause() {
+        this.paused = !this.paused;
+        schedule();
+    }
+
+    /**
+     * Does one Step on the Step Thread, also while paused.
+     */
+    public synchronized void singleStep() {
+        if (!this.cancelled) {
+            this.stepScheduler.execute(this::step);
         }
     }
 
+    /**
+     * Cancels both Tasks while the Window is iconified.
+     */
+    public synchronized void setIconified(boolean iconified) {
+        this.iconified = iconified;
+        schedule();
+    }
+
+    /**
+     * Coalesced: any Number of Requests between two Frames gives one Repaint. May be called from any Thread.
+     */
+    public void requestRepaint() {
+        this.repaintRequested.set(true);
+    }
+
     public synchronized boolean goOn() {
-        return goOn;
+        return !this.cancelled;
     }
 
+    /**
+     * Cancels the Animation for good.
+     */
     public synchronized void exit() {
-        goOn = Boolean.FALSE;
+        this.cancelled = true;
+        this.stepScheduler.shutdownNow();
+        this.frameScheduler.shutdownNow();
     }
 
+    /**
+     * Starts or cancels the Tasks as the State requires.
+     */
+    private void schedule() {
+        boolean visible = this.started && !this.cancelled && !this.iconified;
+        boolean stepping = visible && !this.paused && this.iterations < this.maxIterations;
+        if (stepping && this.stepTask == null) {
+            this.stepTask = this.stepScheduler.scheduleWithFixedDelay(
+                this::scheduledStep, remainingDelay(), this.threadSleepTime, TimeUnit.MILLISECONDS
+            );
+        } else if (!stepping && this.stepTask != null) {
+            this.stepTask.cancel(false);
+            this.stepTask = null;
+        }
+        if (visible && this.frameTask == null) {
+            long period = 1000000L / this.targetFps;
+            this.frameTask = this.frameScheduler.scheduleAtFixedRate(this::frame, 0L, period, TimeUnit.MICROSECONDS);
+            requestRepaint();
+        } else if (!visible && this.frameTask != null) {
+            this.frameTask.cancel(false);
+            this.frameTask = null;
+        }
+    }
+
+    /**
+     * @return Milliseconds until the next Step is due: none before the first Step, else the Rest of threadSleepTime
+     */
+    private long remainingDelay() {
+        if (!this.stepped) {
+            return 0L;
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.lastStepNanos);
+        return Math.max(0L, this.threadSleepTime - elapsed);
+    }
+
+    private void scheduledStep() {
+        synchronized (this) {
+            this.iterations++;
+            if (this.iterations >= this.maxIterations) {
+                schedule();
+            }
+        }
+        step();
+    }
+
+    /**
+     * An Exception would silently cancel a periodic Task, so it is logged and the Animation pauses.
+     */
+    private void step() {
+        try {
+            this.model.step();
+            requestRepaint();
+        } catch (RuntimeException e) {
+            log.error("step failed, pausing: " + e.getMessage(), e);
+            pause();
+        } finally {
+            this.lastStepNanos = System.nanoTime();
+            this.stepped = true;
+        }
+    }
+
+    /**
+     * One Frame: repaints if a Repaint was requested since the last Frame.
+     */
+    void frame() {
+        if (this.repaintRequested.getAndSet(false)) {
+            this.repaint.run();
+        }
+    }
 }
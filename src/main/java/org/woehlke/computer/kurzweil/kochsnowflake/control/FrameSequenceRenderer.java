@@ -0,0 +1,215 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.control;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.KochSnowflakeModel;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochViewportSubdivision;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+import org.woehlke.computer.kurzweil.kochsnowflake.view.canvas.KochSnowflakeRasterizer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Renders the step by step Animation of ControllerThread offscreen into numbered PNG Files, for Videos.
+ *
+ * The Frames show the Levels 0 .. level, each for framesPerLevel Frames, while the Viewport moves
+ * from the whole World into the zoomTo Rectangle, if one is given.
+ * Rendering and PNG Encoding run on a fixed Pool of Workers. Each Frame in Flight holds one of a fixed Number
+ * of Frame Buffers, an Image and its encoded Bytes, which is reused for a later Frame once its File is written.
+ * The Files are written by the calling Thread strictly in Frame Order, so what is on Disk is always a complete Prefix
+ * of the Animation, and at the End the Throughput is reported in Frames per Second.
+ *
+ * The Levels are computed by the calling Thread; the Workers only read the finished Vertices of a Level,
+ * so a Frame of the whole World is the same Image as HeadlessRenderer and the Canvas draw.
+ * Only a Frame which magnifies the World, with the built-in Koch Rule, computes the visible Segments of its Viewport
+ * exactly, as the rounded Vertices would show their Pixel Grid there.
+ * With levelOfDetail the Levels are refined for the Scale of the most magnified Frame, the last one.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see ControllerThread
+ * @see HeadlessRenderer
+ * @see KochSnowflakeRasterizer
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Log4j2
+@Getter
+public class FrameSequenceRenderer {
+
+    private final KochSnowflakeModel model;
+
+    private final KochSnowflakeRasterizer rasterizer;
+
+    private final int workers;
+
+    /**
+     * Frame Buffers, also the most Frames in Flight.
+     */
+    private final int buffers;
+
+    public FrameSequenceRenderer(KochSnowflakeModel model, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive: " + workers);
+        }
+        this.model = model;
+        this.rasterizer = new KochSnowflakeRasterizer();
+        this.workers = workers;
+        this.buffers = 2 * workers;
+    }
+
+    /**
+     * @param level the last Level
+     * @param framesPerLevel Frames for each Level
+     * @param zoomTo the Viewport of the last Frame, or null for the whole World in all Frames
+     * @param width Width of the Frames
+     * @param height Height of the Frames
+     * @param directory receives frame-000000.png, frame-000001.png, ...
+     * @return the Throughput in Frames per Second
+     * @throws IOException if a Frame cannot be encoded or written
+     */
+    public double render(int level, int framesPerLevel, LatticeRectangle zoomTo, int width, int height, Path directory) throws IOException {
+        if (level < 0 || framesPerLevel <= 0) {
+            throw new IllegalArgumentException("level must not be negative and framesPerLevel must be positive");
+        }
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        LinkedListNodeContainer container = this.model.getLinkedListNodeContainer();
+        LatticeRectangle from = HeadlessRenderer.viewport(this.model.getWorldDimensions(), width, height);
+        LatticeRectangle to = zoomTo == null ? from : aspect(zoomTo, width, height);
+        container.setPixelsPerUnit(LinkedListNodeContainer.pixelsPerUnit(to, width, height));
+        this.model.start();
+        boolean builtInRule = container.getLsystem() == null && !container.isExactGeometry() && !container.isLevelOfDetail();
+        KochViewportSubdivision subdivision = new KochViewportSubdivision(container.getVertexLookup().getSeed());
+        int frames = (level + 1) * framesPerLevel;
+        Deque<FrameBuffer> free = new ArrayDeque<>();
+        for (int b = 0; b < this.buffers; b++) {
+            free.add(new FrameBuffer(width, height));
+        }
+        Deque<Future<FrameBuffer>> inFlight = new ArrayDeque<>();
+        ExecutorService pool = Executors.newFixedThreadPool(this.workers);
+        try {
+            for (int frame = 0; frame < frames; frame++) {
+                int frameLevel = frame / framesPerLevel;
+                LatticeRectangle viewport = interpolate(from, to, frames == 1 ? 1.0d : ((double) frame) / (frames - 1));
+                boolean exact = builtInRule && viewport.getDimension().getWidth() < from.getDimension().getWidth();
+                while (!exact && container.getLevel() < frameLevel) {
+                    this.model.step();
+                }
+                LatticePointArray vertices = exact ? null : container.getVertices();
+                if (free.isEmpty()) {
+                    free.add(write(inFlight.poll(), directory));
+                }
+                FrameBuffer buffer = free.poll();
+                buffer.frame = frame;
+                inFlight.add(pool.submit(() -> {
+                    if (vertices == null) {
+                        this.rasterizer.render(subdivision.visibleSegments(frameLevel, viewport), viewport, buffer.image);
+                    } else {
+                        this.rasterizer.render(vertices, viewport, buffer.image);
+                    }
+                    buffer.png.reset();
+                    if (!ImageIO.write(buffer.image, "png", buffer.png)) {
+                        throw new IOException("no ImageIO Writer for png");
+                    }
+                    return buffer;
+                }));
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.poll(), directory);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1.0e9d;
+        double framesPerSecond = frames / seconds;
+        log.info(String.format("rendered %d Frames of Levels 0 .. %d with %d Workers in %.2f s: %.1f Frames/s",
+            frames, level, this.workers, seconds, framesPerSecond));
+        return framesPerSecond;
+    }
+
+    /**
+     * Waits for the oldest Frame in Flight and writes it, so the Files are written in Frame Order.
+     *
+     * @return the Frame Buffer, free again
+     */
+    private FrameBuffer write(Future<FrameBuffer> pending, Path directory) throws IOException {
+        FrameBuffer buffer;
+        try {
+            buffer = pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        Path file = directory.resolve(String.format("frame-%06d.png", buffer.frame));
+        try (OutputStream out = Files.newOutputStream(file)) {
+            buffer.png.writeTo(out);
+        }
+        return buffer;
+    }
+
+    /**
+     * Moves the Center linear and scales the Size geometric, so a Zoom looks steady.
+     */
+    static LatticeRectangle interpolate(LatticeRectangle from, LatticeRectangle to, double t) {
+        double fromWidth = from.getDimension().getWidth();
+        double fromHeight = from.getDimension().getHeight();
+        double toWidth = to.getDimension().getWidth();
+        double toHeight = to.getDimension().getHeight();
+        double centerX = from.getStart().getX() + fromWidth / 2 + t * (to.getStart().getX() + toWidth / 2 - from.getStart().getX() - fromWidth / 2);
+        double centerY = from.getStart().getY() + fromHeight / 2 + t * (to.getStart().getY() + toHeight / 2 - from.getStart().getY() - fromHeight / 2);
+        int width = Math.max(1, (int) Math.round(fromWidth * Math.pow(toWidth / fromWidth, t)));
+        int height = Math.max(1, (int) Math.round(fromHeight * Math.pow(toHeight / fromHeight, t)));
+        return LatticeRectangle.of((int) Math.round(centerX - width / 2.0d), (int) Math.round(centerY - height / 2.0d), width, height);
+    }
+
+    /**
+     * Widens the Rectangle around its Center to the Aspect Ratio of the Frames.
+     */
+    private static LatticeRectangle aspect(LatticeRectangle rectangle, int width, int height) {
+        LatticeDimension dimension = rectangle.getDimension();
+        double scale = Math.min(((double) width) / dimension.getWidth(), ((double) height) / dimension.getHeight());
+        int viewportWidth = (int) Math.ceil(width / scale);
+        int viewportHeight = (int) Math.ceil(height / scale);
+        int startX = rectangle.getStart().getX() - (viewportWidth - dimension.getWidth()) / 2;
+        int startY = rectangle.getStart().getY() - (viewportHeight - dimension.getHeight()) / 2;
+        return LatticeRectangle.of(startX, startY, viewportWidth, viewportHeight);
+    }
+
+    /**
+     * An Image and the Bytes of its PNG, reused from Frame to Frame.
+     */
+    private static class FrameBuffer {
+
+        private final BufferedImage image;
+        private final ByteArrayOutputStream png = new ByteArrayOutputStream();
+        private int frame;
+
+        FrameBuffer(int width, int height) {
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+    }
+}
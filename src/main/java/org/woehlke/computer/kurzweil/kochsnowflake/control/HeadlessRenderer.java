@@ -0,0 +1,225 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.control;
+
+import lombok.extern.log4j.Log4j2;
+import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.KochSnowflakeModel;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.io.KochGeometryFormat;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.io.KochGeometryWriter;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.MappedKochLevels;
+import org.woehlke.computer.kurzweil.kochsnowflake.view.canvas.KochSnowflakeRasterizer;
+import org.woehlke.computer.kurzweil.kochsnowflake.view.export.TilePyramidExporter;
+import org.woehlke.computer.kurzweil.kochsnowflake.view.export.VectorExporter;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Renders Levels into Image Files without a Frame, for CI and Servers without a Display.
+ * Only the Model and the KochSnowflakeRasterizer are used, no Swing Component is created.
+ *
+ * All Jobs run in one JVM and share the Model: a Job at a higher Level continues from the Level before,
+ * a Job at a lower Level starts again from the Seed Triangle.
+ * Files ending with .svg or .eps are exported as Vectors by the VectorExporter; with the built-in Koch Rule
+ * their Vertices are generated lazily, so the Level is never held in Memory.
+ * Animations are rendered into numbered Frames by the FrameSequenceRenderer.
+ * Jobs with a Zoom are written as Tile Pyramid by the TilePyramidExporter, from the built-in Koch Rule.
+ * Files ending with .koch get the computed Level in the KochGeometryFormat, to be loaded by other Tools.
+ * Levels of the built-in Koch Rule with more than 2^31 Vertices are computed for them in MappedKochLevels.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see RenderJob
+ * @see KochSnowflakeModel
+ * @see KochSnowflakeRasterizer
+ * @see VectorExporter
+ * @see TilePyramidExporter
+ * @see FrameSequenceRenderer
+ * @see KochGeometryWriter
+ * @see MappedKochLevels
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Log4j2
+public class HeadlessRenderer {
+
+    private final KochSnowflakeModel model;
+
+    private final KochSnowflakeRasterizer rasterizer;
+
+    private boolean started = false;
+
+    public HeadlessRenderer(ComputerKurzweilProperties config) {
+        this.model = new KochSnowflakeModel(config);
+        this.rasterizer = new KochSnowflakeRasterizer();
+    }
+
+    /**
+     * @param args the Command Line, see RenderJob
+     * @throws IOException if a Job List cannot be read or an Image cannot be written
+     */
+    public void run(String[] args) throws IOException {
+        LatticeDimension world = this.model.getWorldDimensions();
+        List<RenderJob> jobs = RenderJob.parse(args, world.getWidth(), world.getHeight());
+        if (jobs.isEmpty()) {
+            throw new IllegalArgumentException("usage: --headless [--level N] [--size WxH] --out file.png ... | [--zoom N] --tiles directory ... | [--frames N] [--zoom-to X,Y,WxH] --animate directory ... | --jobs file");
+        }
+        for (RenderJob job : jobs) {
+            render(job);
+        }
+    }
+
+    public void render(RenderJob job) throws IOException {
+        long start = System.currentTimeMillis();
+        Path out = job.getOut().toAbsolutePath();
+        if (job.isAnimation()) {
+            new FrameSequenceRenderer(this.model, Runtime.getRuntime().availableProcessors()).render(
+                job.getLevel(), job.getFrames(), job.getZoomTo(), job.getWidth(), job.getHeight(), out
+            );
+            this.started = true;
+            log.info("rendered " + job + " in " + (System.currentTimeMillis() - start) + " ms");
+            return;
+        }
+        if (job.isPyramid()) {
+            if (!this.started) {
+                this.model.start();
+                this.started = true;
+            }
+            LinkedListNodeContainer container = this.model.getLinkedListNodeContainer();
+            new TilePyramidExporter(Runtime.getRuntime().availableProcessors()).export(
+                container.getVertexLookup().getSeed(), container.getWorldDimensions(), job.getLevel(), job.getZoom(), out
+            );
+            log.info("rendered " + job + " in " + (System.currentTimeMillis() - start) + " ms");
+            return;
+        }
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        if (out.getFileName().toString().toLowerCase().endsWith(KochGeometryFormat.EXTENSION)) {
+            int scale = this.model.getConfig().getKochsnowflake().getView().getScale();
+            if (isMapped(job.getLevel())) {
+                writeMapped(job.getLevel(), out, scale);
+            } else {
+                stepTo(job.getLevel(), viewport(this.model.getWorldDimensions(), job.getWidth(), job.getHeight()), job.getWidth(), job.getHeight());
+                KochGeometryWriter.write(out, this.model.getLinkedListNodeContainer(), scale);
+            }
+            log.info("rendered " + job + " in " + (System.currentTimeMillis() - start) + " ms");
+            return;
+        }
+        VectorExporter.Format vectorFormat = VectorExporter.Format.of(out);
+        if (vectorFormat != null) {
+            exportVectors(job, new VectorExporter(vectorFormat, true, 2), out);
+            log.info("rendered " + job + " in " + (System.currentTimeMillis() - start) + " ms");
+            return;
+        }
+        BufferedImage image = renderImage(job.getLevel(), job.getWidth(), job.getHeight());
+        String fileName = out.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String format = dot < 0 ? "png" : fileName.substring(dot + 1).toLowerCase();
+        if (!ImageIO.write(image, format, out.toFile())) {
+            throw new IOException("no ImageIO Writer for " + format);
+        }
+        log.info("rendered " + job + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * @param level the Level
+     * @param width Width of the Image
+     * @param height Height of the Image
+     * @return the whole Snowflake, centered and scaled to the Image, keeping its Aspect Ratio.
+     */
+    public BufferedImage renderImage(int level, int width, int height) {
+        LatticeRectangle viewport = viewport(this.model.getWorldDimensions(), width, height);
+        stepTo(level, viewport, width, height);
+        return this.rasterizer.render(this.model.getLinkedListNodeContainer().getVertices(), viewport, width, height);
+    }
+
+    private void exportVectors(RenderJob job, VectorExporter exporter, Path out) throws IOException {
+        LatticeRectangle viewport = viewport(this.model.getWorldDimensions(), job.getWidth(), job.getHeight());
+        LinkedListNodeContainer container = this.model.getLinkedListNodeContainer();
+        if (!this.started) {
+            this.model.start();
+            this.started = true;
+        }
+        boolean builtInRule = container.getLsystem() == null && !container.isExactGeometry() && !container.isLevelOfDetail();
+        if (builtInRule) {
+            exporter.export(container.getVertexLookup(), job.getLevel(), viewport, job.getWidth(), job.getHeight(), out);
+        } else {
+            stepTo(job.getLevel(), viewport, job.getWidth(), job.getHeight());
+            exporter.export(container.getVertices(), viewport, job.getWidth(), job.getHeight(), out);
+        }
+    }
+
+    /**
+     * @return true if the Level of the built-in Koch Rule has more Vertices than an Array on the Heap can hold
+     */
+    private boolean isMapped(int level) {
+        if (!this.started) {
+            this.model.start();
+            this.started = true;
+        }
+        LinkedListNodeContainer container = this.model.getLinkedListNodeContainer();
+        boolean builtInRule = container.getLsystem() == null && !container.isExactGeometry() && !container.isLevelOfDetail();
+        return builtInRule && container.getVertexLookup().vertexCount(level) > Integer.MAX_VALUE;
+    }
+
+    /**
+     * Computes the Level in memory mapped Files in the Scratch Directory and writes it from there.
+     */
+    private void writeMapped(int level, Path out, int scale) throws IOException {
+        try (MappedKochLevels mappedLevels = this.model.startMappedLevels()) {
+            while (mappedLevels.getLevel() < level) {
+                mappedLevels.step();
+            }
+            KochGeometryWriter.write(out, mappedLevels, this.model.getLinkedListNodeContainer(), scale);
+        }
+    }
+
+    /**
+     * Like stepTo, for an Output of width x height Pixels showing viewport. With levelOfDetail the Levels depend
+     * on the Size of the Output, so they are computed again from the Seed Triangle if it has changed.
+     */
+    private void stepTo(int level, LatticeRectangle viewport, int width, int height) {
+        LinkedListNodeContainer container = this.model.getLinkedListNodeContainer();
+        double pixelsPerUnit = LinkedListNodeContainer.pixelsPerUnit(viewport, width, height);
+        if (container.isLevelOfDetail() && pixelsPerUnit != container.getPixelsPerUnit()) {
+            container.setPixelsPerUnit(pixelsPerUnit);
+            this.started = false;
+        }
+        stepTo(level);
+    }
+
+    private void stepTo(int level) {
+        if (level < 0) {
+            throw new IllegalArgumentException("level must not be negative: " + level);
+        }
+        if (!this.started || this.model.getLinkedListNodeContainer().getLevel() > level) {
+            this.model.start();
+            this.started = true;
+        }
+        while (this.model.getLinkedListNodeContainer().getLevel() < level) {
+            this.model.step();
+        }
+    }
+
+    /**
+     * The Part of the World with the Aspect Ratio of the Image, which contains the whole World.
+     */
+    static LatticeRectangle viewport(LatticeDimension world, int width, int height) {
+        double scale = Math.min(((double) width) / world.getWidth(), ((double) height) / world.getHeight());
+        int viewportWidth = (int) Math.ceil(width / scale);
+        int viewportHeight = (int) Math.ceil(height / scale);
+        int startX = (world.getWidth() - viewportWidth) / 2;
+        int startY = (world.getHeight() - viewportHeight) / 2;
+        return LatticeRectangle.of(startX, startY, viewportWidth, viewportHeight);
+    }
+}
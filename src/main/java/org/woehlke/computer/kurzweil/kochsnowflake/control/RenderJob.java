@@ -0,0 +1,178 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.control;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.view.export.TilePyramidExporter;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One Image to render headless: a Level in a Size into a File.
+ *
+ * Jobs are read from the Command Line, e.g. --level 7 --size 1920x1404 --out koch.png.
+ * Every --out ends a Job; level and size are kept for the following Jobs.
+ * With --zoom N --tiles directory a Job renders a Pyramid of Tiles with the Zoom Levels 0 .. N instead of one Image.
+ * With --frames N --animate directory a Job renders an Animation of the Levels 0 .. level with N Frames per Level,
+ * zooming into the Rectangle of --zoom-to X,Y,WxH if given.
+ * With --jobs file each non-blank Line of the File, which does not start with #, is read the same Way,
+ * starting again from Level 0 and the default Size.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see HeadlessRenderer
+ * @see TilePyramidExporter
+ * @see FrameSequenceRenderer
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class RenderJob implements Serializable {
+
+    static final long serialVersionUID = 242L;
+
+    private final int level;
+
+    private final int width;
+
+    private final int height;
+
+    private final Path out;
+
+    /**
+     * Highest Zoom Level of a Tile Pyramid, or NO_PYRAMID for one Image.
+     */
+    private final int zoom;
+
+    /**
+     * Frames per Level of an Animation, or 0 for one Image.
+     */
+    private final int frames;
+
+    /**
+     * The Part of the World an Animation zooms into, or null to show the whole World in all Frames.
+     */
+    private final LatticeRectangle zoomTo;
+
+    public static final int NO_PYRAMID = -1;
+
+    public RenderJob(int level, int width, int height, Path out) {
+        this(level, width, height, out, NO_PYRAMID);
+    }
+
+    public RenderJob(int level, int width, int height, Path out, int zoom) {
+        this(level, width, height, out, zoom, 0, null);
+    }
+
+    public boolean isPyramid() {
+        return zoom != NO_PYRAMID;
+    }
+
+    public boolean isAnimation() {
+        return frames > 0;
+    }
+
+    /**
+     * @param args the Command Line
+     * @param width Width if no --size is given
+     * @param height Height if no --size is given
+     * @return the Jobs in the Order of the Command Line
+     * @throws IOException if a Job List cannot be read
+     */
+    public static List<RenderJob> parse(String[] args, int width, int height) throws IOException {
+        List<RenderJob> jobs = new ArrayList<>();
+        new Parser(width, height).parse(args, jobs);
+        return jobs;
+    }
+
+    private static class Parser {
+
+        private final int defaultWidth;
+        private final int defaultHeight;
+        private int level = 0;
+        private int zoom = 0;
+        private int frames = 1;
+        private LatticeRectangle zoomTo = null;
+        private int width;
+        private int height;
+
+        Parser(int width, int height) {
+            this.defaultWidth = width;
+            this.defaultHeight = height;
+            this.width = width;
+            this.height = height;
+        }
+
+        void parse(String[] args, List<RenderJob> jobs) throws IOException {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--headless" -> { }
+                    case "--level" -> level = Integer.parseInt(value(args, ++i));
+                    case "--size" -> {
+                        String size = value(args, ++i);
+                        int x = size.indexOf('x');
+                        if (x <= 0) {
+                            throw new IllegalArgumentException("--size needs WIDTHxHEIGHT, not " + size);
+                        }
+                        width = Integer.parseInt(size.substring(0, x));
+                        height = Integer.parseInt(size.substring(x + 1));
+                    }
+                    case "--out" -> jobs.add(new RenderJob(level, width, height, Path.of(value(args, ++i))));
+                    case "--zoom" -> {
+                        zoom = Integer.parseInt(value(args, ++i));
+                        if (zoom < 0 || zoom > TilePyramidExporter.MAX_ZOOM) {
+                            throw new IllegalArgumentException("--zoom must be 0 .. " + TilePyramidExporter.MAX_ZOOM + ", not " + zoom);
+                        }
+                    }
+                    case "--tiles" -> jobs.add(new RenderJob(level, width, height, Path.of(value(args, ++i)), zoom));
+                    case "--frames" -> {
+                        frames = Integer.parseInt(value(args, ++i));
+                        if (frames <= 0) {
+                            throw new IllegalArgumentException("--frames must be positive, not " + frames);
+                        }
+                    }
+                    case "--zoom-to" -> {
+                        String[] rectangle = value(args, ++i).split("[,x]");
+                        if (rectangle.length != 4) {
+                            throw new IllegalArgumentException("--zoom-to needs X,Y,WIDTHxHEIGHT, not " + args[i]);
+                        }
+                        zoomTo = LatticeRectangle.of(
+                            Integer.parseInt(rectangle[0]), Integer.parseInt(rectangle[1]),
+                            Integer.parseInt(rectangle[2]), Integer.parseInt(rectangle[3])
+                        );
+                    }
+                    case "--animate" -> jobs.add(new RenderJob(level, width, height, Path.of(value(args, ++i)), NO_PYRAMID, frames, zoomTo));
+                    case "--jobs" -> {
+                        for (String line : Files.readAllLines(Path.of(value(args, ++i)))) {
+                            String job = line.strip();
+                            if (!job.isEmpty() && !job.startsWith("#")) {
+                                new Parser(defaultWidth, defaultHeight).parse(job.split("\\s+"), jobs);
+                            }
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("unknown Argument: " + args[i]);
+                }
+            }
+        }
+
+        private String value(String[] args, int i) {
+            if (i >= args.length) {
+                throw new IllegalArgumentException(args[i - 1] + " needs a Value");
+            }
+            return args[i];
+        }
+    }
+}
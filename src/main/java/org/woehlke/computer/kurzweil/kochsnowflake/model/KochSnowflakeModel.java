@@ -3,11 +3,22 @@ package org.woehlke.computer.kurzweil.kochsnowflake.model;
 import lombok.Getter;
 import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
 import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochLevel;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochLevelChunks;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochSegmentTree;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochSubdivision;
 import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.MappedKochLevels;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.lsystem.LSystem;
 import org.woehlke.computer.kurzweil.kochsnowflake.view.KochSnowflakeFrame;
 
+import java.io.IOException;
 import java.io.Serial;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Koch Snowflake. A Fractal with self self-similarity.
@@ -17,6 +28,7 @@ import java.io.Serializable;
  * @see ComputerKurzweilProperties
  * @see KochSnowflakeFrame
  * @see LinkedListNodeContainer
+ * @see MappedKochLevels
  *
  * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
  * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
@@ -29,25 +41,208 @@ public class KochSnowflakeModel implements Serializable {
     @Serial
     static final long serialVersionUID = 242L;
 
+    /**
+     * The Frame, null when rendering headless.
+     */
     private volatile KochSnowflakeFrame tab;
+    private final ComputerKurzweilProperties config;
     private volatile LinkedListNodeContainer linkedListNodeContainer;
 
     private final LatticeDimension worldDimensions;
 
+    /**
+     * The Part of the World shown on the Canvas.
+     */
+    private volatile LatticeRectangle viewport;
+
+    /**
+     * Index of the Segment picked with the Mouse in selectedLevel, or -1.
+     */
+    private volatile int selectedSegment = -1;
+
+    /**
+     * The Level in which selectedSegment was picked, so a Selection never shows on another Level.
+     */
+    private volatile KochLevel selectedLevel;
+
+    /**
+     * Counts every Change of what is drawn, so the View can keep its Image until the Generation changes.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * The Chunks of the Level being computed by computeStep, or null.
+     */
+    private transient volatile KochLevelChunks progress;
+
     public KochSnowflakeModel(KochSnowflakeFrame tab) {
+        this(tab.getConfig(), tab);
+    }
+
+    /**
+     * Without a Frame, for headless Rendering: nothing of Swing is touched.
+     *
+     * @param config the Configuration
+     */
+    public KochSnowflakeModel(ComputerKurzweilProperties config) {
+        this(config, null);
+    }
+
+    private KochSnowflakeModel(ComputerKurzweilProperties config, KochSnowflakeFrame tab) {
         this.tab = tab;
-        int scale = tab.getConfig().getKochsnowflake().getView().getScale();
-        int width = scale * tab.getConfig().getKochsnowflake().getView().getWidth();
-        int height = scale * tab.getConfig().getKochsnowflake().getView().getHeight();
+        this.config = config;
+        int scale = config.getKochsnowflake().getView().getScale();
+        int width = scale * config.getKochsnowflake().getView().getWidth();
+        int height = scale * config.getKochsnowflake().getView().getHeight();
         this.worldDimensions = LatticeDimension.of(width,height);
+        this.viewport = LatticeRectangle.of(0, 0, width, height);
         this.linkedListNodeContainer = new LinkedListNodeContainer(tab, this.worldDimensions);
+        this.linkedListNodeContainer.setSegmentTreeWithLevel(tab != null);
+        this.linkedListNodeContainer.setParallelismThreshold(
+            config.getKochsnowflake().getControl().getParallelismThreshold()
+        );
+        this.linkedListNodeContainer.setKernel(
+            KochSubdivision.kernel(config.getKochsnowflake().getControl().getSubdivisionKernel())
+        );
+        this.linkedListNodeContainer.setExactGeometry(
+            config.getKochsnowflake().getControl().getExactGeometry()
+        );
+        this.linkedListNodeContainer.setLevelOfDetail(
+            config.getKochsnowflake().getControl().getLevelOfDetail()
+        );
+        this.linkedListNodeContainer.setPixelTolerance(
+            config.getKochsnowflake().getControl().getPixelTolerance()
+        );
+        String lsystemName = config.getKochsnowflake().getControl().getLsystem();
+        if (!lsystemName.isBlank()) {
+            ComputerKurzweilProperties.Kochsnowflake.Lsystem definition = config.getKochsnowflake().getLsystems().get(lsystemName);
+            if (definition == null) {
+                throw new IllegalArgumentException("no L-System in kochsnowflake.lsystems named " + lsystemName);
+            }
+            this.linkedListNodeContainer.setLsystem(LSystem.compile(lsystemName, definition));
+        }
     }
 
     public void step() {
          this.linkedListNodeContainer.step();
+         this.selectedSegment = -1;
+         this.selectedLevel = null;
+         this.generation.incrementAndGet();
+    }
+
+    /**
+     * Computes the Level after base in a Thread other than the Event Dispatch Thread, without showing it.
+     * While it is computed, chunks is the progress of the Model, so the Canvas can draw the finished Chunks.
+     *
+     * @param base the Snapshot to step from
+     * @param chunks Progress and Cancellation
+     * @return the next Level, to be shown by publishStep
+     * @throws java.util.concurrent.CancellationException if chunks is cancelled or its Time Budget is spent
+     */
+    public KochLevel computeStep(KochLevel base, KochLevelChunks chunks) {
+        synchronized (this) {
+            this.progress = chunks;
+        }
+        try {
+            return this.linkedListNodeContainer.computeNext(base, chunks);
+        } catch (RuntimeException e) {
+            discardStep(chunks);
+            throw e;
+        }
+    }
+
+    /**
+     * Shows a Level computed by computeStep, unless the Model has moved on from base in the Meantime.
+     *
+     * @return false if the Level was stale and is dropped
+     */
+    public boolean publishStep(KochLevel base, KochLevel next, KochLevelChunks chunks) {
+        boolean published = this.linkedListNodeContainer.publish(base, next);
+        if (published) {
+            this.selectedSegment = -1;
+            this.selectedLevel = null;
+            this.generation.incrementAndGet();
+        }
+        discardStep(chunks);
+        return published;
+    }
+
+    /**
+     * Ends the progress of chunks, if it is still the progress of the Model.
+     */
+    public synchronized void discardStep(KochLevelChunks chunks) {
+        if (this.progress == chunks) {
+            this.progress = null;
+        }
+    }
+
+    /**
+     * @return the Generation of the Model, changed by start, step and a new Viewport.
+     */
+    public long getGeneration() {
+        return this.generation.get();
+    }
+
+    /**
+     * With levelOfDetail the Zoom of the Viewport refines the Levels computed from now on.
+     */
+    public void setViewport(LatticeRectangle viewport) {
+        this.viewport = viewport;
+        this.linkedListNodeContainer.setPixelsPerUnit(
+            LinkedListNodeContainer.pixelsPerUnit(viewport, worldDimensions.getWidth(), worldDimensions.getHeight())
+        );
+        this.generation.incrementAndGet();
+    }
+
+    /**
+     * Selects the Segment nearest to a Point on the Canvas, if it is not farther than radius Pixels.
+     * A changed Selection changes the Generation, so the Canvas shows it.
+     *
+     * @param canvasX horizontal Position on the Canvas
+     * @param canvasY vertical Position on the Canvas
+     * @param radius maximal Distance in Pixels
+     * @return Index of the selected Segment in the current Level, or -1
+     */
+    public int pickSegment(int canvasX, int canvasY, double radius) {
+        LatticeRectangle view = this.viewport;
+        double unitsPerPixelX = ((double) view.getDimension().getWidth()) / worldDimensions.getWidth();
+        double unitsPerPixelY = ((double) view.getDimension().getHeight()) / worldDimensions.getHeight();
+        double x = view.getStart().getX() + canvasX * unitsPerPixelX;
+        double y = view.getStart().getY() + canvasY * unitsPerPixelY;
+        double worldRadius = radius * Math.max(unitsPerPixelX, unitsPerPixelY);
+        KochLevel level = this.linkedListNodeContainer.getSnapshot();
+        KochSegmentTree tree = level.getSegmentTree();
+        int nearest = tree.nearestSegment(x, y);
+        if (nearest >= 0 && tree.distanceSquared(nearest, x, y) > worldRadius * worldRadius) {
+            nearest = -1;
+        }
+        if (nearest != this.selectedSegment || level != this.selectedLevel) {
+            this.selectedSegment = nearest;
+            this.selectedLevel = level;
+            this.generation.incrementAndGet();
+        }
+        return nearest;
     }
 
     public void start(){
         this.linkedListNodeContainer.start();
+        this.selectedSegment = -1;
+        this.selectedLevel = null;
+        this.generation.incrementAndGet();
+    }
+
+    /**
+     * @return Level 0 in memory mapped Files in the configured Scratch Directory, to be stepped to very deep Levels.
+     * @throws IOException if the Scratch Directory or the Files cannot be created
+     */
+    public MappedKochLevels startMappedLevels() throws IOException {
+        ComputerKurzweilProperties.Kochsnowflake.Control control = config.getKochsnowflake().getControl();
+        Path scratchDirectory = Path.of(control.getScratchDirectory());
+        Files.createDirectories(scratchDirectory);
+        MappedKochLevels mappedLevels = new MappedKochLevels(
+            scratchDirectory, control.getParallelismThreshold(), this.linkedListNodeContainer.getKernel()
+        );
+        mappedLevels.start(this.linkedListNodeContainer.getVertexLookup().getSeed());
+        return mappedLevels;
     }
 }
@@ -3,7 +3,6 @@ package org.woehlke.computer.kurzweil.kochsnowflake.model.geometry;
 import lombok.*;
 import lombok.extern.log4j.Log4j2;
 import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
-import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNode;
 import org.woehlke.computer.kurzweil.kochsnowflake.view.KochSnowflakeFrame;
 
 import java.io.Serializable;
@@ -19,7 +18,6 @@ import java.io.Serializable;
  * @see KochSnowflakeFrame
  * @see LatticeDimension
  *
- * @see LinkedListNode
  *
  * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
  * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
@@ -38,6 +36,15 @@ public class LatticePoint implements Serializable {
 
     static final long serialVersionUID = 242L;
 
+    /**
+     * Angle used by rotationMatrix for the Apex of the new Triangle.
+     */
+    public static final double ROTATION_ANGLE = 45.0d;
+
+    public static final double ROTATION_COS = Math.cos(ROTATION_ANGLE);
+
+    public static final double ROTATION_SIN = Math.sin(ROTATION_ANGLE);
+
     /**
      * Horizontal X-Coordinate. Also used as Width;
      */
@@ -132,11 +139,10 @@ public class LatticePoint implements Serializable {
      */
     public LatticePoint rotationMatrix(LatticePoint nextPoint){
         LatticePoint deltaVector = this.delta(nextPoint);
-        double angle = 45.0d;
         double dx = Integer.valueOf(deltaVector.getX()).doubleValue();
         double dy = Integer.valueOf(deltaVector.getY()).doubleValue();
-        double xxx = dx * Math.cos(angle) - dy * Math.sin(angle);
-        double yyy = dx * Math.sin(angle) + dy * Math.cos(angle);
+        double xxx = dx * ROTATION_COS - dy * ROTATION_SIN;
+        double yyy = dx * ROTATION_SIN + dy * ROTATION_COS;
         int xx = Double.valueOf(xxx).intValue();
         int yy = Double.valueOf(yyy).intValue();
         LatticePoint rotatedDeltaVector = new LatticePoint(xx,yy);
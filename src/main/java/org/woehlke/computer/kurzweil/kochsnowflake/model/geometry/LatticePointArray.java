@@ -0,0 +1,88 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.geometry;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+
+import java.io.Serializable;
+
+/**
+ * A closed Polygon of LatticePoints, stored as Struct of Arrays.
+ * The Vertex i is connected to the Vertex i+1, the last Vertex is connected to the first Vertex.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see LatticePoint
+ * @see LinkedListNodeContainer
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Getter
+@ToString(of = {"size"})
+public class LatticePointArray implements Serializable {
+
+    static final long serialVersionUID = 242L;
+
+    /**
+     * Horizontal X-Coordinates of all Vertices.
+     */
+    private final int[] x;
+
+    /**
+     * Vertical Y-Coordinates of all Vertices.
+     */
+    private final int[] y;
+
+    private final int size;
+
+    public LatticePointArray(int size) {
+        this.x = new int[size];
+        this.y = new int[size];
+        this.size = size;
+    }
+
+    public LatticePointArray(int[] x, int[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x.length != y.length");
+        }
+        this.x = x;
+        this.y = y;
+        this.size = x.length;
+    }
+
+    public int getX(int i) {
+        return x[i];
+    }
+
+    public int getY(int i) {
+        return y[i];
+    }
+
+    /**
+     * @param i index of the Vertex
+     * @return index of the following Vertex, wrapping around at the End of the closed Polygon.
+     */
+    public int next(int i) {
+        return (i + 1 == size) ? 0 : i + 1;
+    }
+
+    public void set(int i, int x, int y) {
+        this.x[i] = x;
+        this.y[i] = y;
+    }
+
+    public LatticePoint getLatticePoint(int i) {
+        return new LatticePoint(x[i], y[i]);
+    }
+
+    public static LatticePointArray of(LatticePoint... points) {
+        LatticePointArray result = new LatticePointArray(points.length);
+        for (int i = 0; i < points.length; i++) {
+            result.set(i, points[i].getX(), points[i].getY());
+        }
+        return result;
+    }
+}
@@ -3,7 +3,6 @@ package org.woehlke.computer.kurzweil.kochsnowflake.model.geometry;
 import lombok.*;
 import lombok.extern.log4j.Log4j2;
 import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
-import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNode;
 import org.woehlke.computer.kurzweil.kochsnowflake.view.KochSnowflakeFrame;
 
 import java.io.Serializable;
@@ -17,7 +16,6 @@ import java.io.Serializable;
  * @see KochSnowflakeFrame
  * @see LatticeDimension
  *
- * @see LinkedListNode
  *
  * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
  * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
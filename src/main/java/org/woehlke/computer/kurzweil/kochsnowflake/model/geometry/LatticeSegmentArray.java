@@ -0,0 +1,85 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.geometry;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Unconnected Segments between LatticePoints, stored as Struct of Arrays.
+ * The Segment i goes from (x[2*i], y[2*i]) to (x[2*i+1], y[2*i+1]) and was the Segment index[i] of the whole Level.
+ * Grows while Segments are added.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see LatticePointArray
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Getter
+@ToString(of = {"size"})
+public class LatticeSegmentArray implements Serializable {
+
+    static final long serialVersionUID = 242L;
+
+    private int[] x;
+
+    private int[] y;
+
+    private long[] index;
+
+    /**
+     * Number of Segments.
+     */
+    private int size;
+
+    public LatticeSegmentArray() {
+        this(64);
+    }
+
+    public LatticeSegmentArray(int capacity) {
+        this.x = new int[2 * Math.max(1, capacity)];
+        this.y = new int[2 * Math.max(1, capacity)];
+        this.index = new long[Math.max(1, capacity)];
+        this.size = 0;
+    }
+
+    public void add(long segmentIndex, int x1, int y1, int x2, int y2) {
+        if (size == index.length) {
+            int capacity = Math.max(2 * index.length, 1);
+            x = Arrays.copyOf(x, 2 * capacity);
+            y = Arrays.copyOf(y, 2 * capacity);
+            index = Arrays.copyOf(index, capacity);
+        }
+        index[size] = segmentIndex;
+        x[2 * size] = x1;
+        y[2 * size] = y1;
+        x[2 * size + 1] = x2;
+        y[2 * size + 1] = y2;
+        size++;
+    }
+
+    public long getIndex(int i) {
+        return index[i];
+    }
+
+    public int getX1(int i) {
+        return x[2 * i];
+    }
+
+    public int getY1(int i) {
+        return y[2 * i];
+    }
+
+    public int getX2(int i) {
+        return x[2 * i + 1];
+    }
+
+    public int getY2(int i) {
+        return y[2 * i + 1];
+    }
+}
@@ -0,0 +1,174 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.geometry;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+/**
+ * A closed Polygon of LatticePoints like LatticePointArray, but with long Indices
+ * and stored off Heap in a memory mapped File, so it may be larger than the Heap and than the RAM.
+ *
+ * The File holds all X-Coordinates followed by all Y-Coordinates as int in native Byte Order.
+ * Each Plane is mapped in Pages of 2^28 ints, because a MappedByteBuffer is limited to 2 GiB.
+ * A Mapping is released only when its Buffer is garbage collected, so a File which is still mapped cannot be deleted
+ * on every Operating System; Scratch Files are therefore opened with DELETE_ON_CLOSE and deleted by the System.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see LatticePointArray
+ * @see FileChannel
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Log4j2
+@Getter
+@ToString(of = {"file", "size"})
+public class MappedLatticePointArray implements Closeable {
+
+    private static final int PAGE_SHIFT = 28;
+    private static final long PAGE_SIZE = 1L << PAGE_SHIFT;
+    private static final long PAGE_MASK = PAGE_SIZE - 1;
+
+    private final Path file;
+
+    private final long size;
+
+    private final FileChannel channel;
+
+    private final IntBuffer[] xPages;
+
+    private final IntBuffer[] yPages;
+
+    private MappedLatticePointArray(Path file, long size, FileChannel channel) throws IOException {
+        this.file = file;
+        this.size = size;
+        this.channel = channel;
+        int pages = (int) ((size + PAGE_SIZE - 1) >>> PAGE_SHIFT);
+        this.xPages = new IntBuffer[pages];
+        this.yPages = new IntBuffer[pages];
+        for (int page = 0; page < pages; page++) {
+            long first = ((long) page) << PAGE_SHIFT;
+            long length = Math.min(PAGE_SIZE, size - first);
+            this.xPages[page] = map(first, length);
+            this.yPages[page] = map(size + first, length);
+        }
+    }
+
+    private IntBuffer map(long firstInt, long lengthInts) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 4L * firstInt, 4L * lengthInts)
+            .order(ByteOrder.nativeOrder())
+            .asIntBuffer();
+    }
+
+    /**
+     * @param file will be created or truncated
+     * @param size number of Vertices
+     * @return a new Array, with all Coordinates 0
+     * @throws IOException if the File cannot be mapped
+     */
+    public static MappedLatticePointArray create(Path file, long size) throws IOException {
+        return create(file, size, EnumSet.noneOf(StandardOpenOption.class));
+    }
+
+    /**
+     * Like create, for a Scratch File which is deleted by close, or when its last Mapping is released.
+     */
+    public static MappedLatticePointArray createScratch(Path file, long size) throws IOException {
+        return create(file, size, EnumSet.of(StandardOpenOption.DELETE_ON_CLOSE));
+    }
+
+    private static MappedLatticePointArray create(Path file, long size, EnumSet<StandardOpenOption> options) throws IOException {
+        log.info("create " + file + " size: " + size);
+        options.addAll(EnumSet.of(
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        ));
+        FileChannel channel = FileChannel.open(file, options);
+        try {
+            return new MappedLatticePointArray(file, size, channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getX(long i) {
+        return xPages[(int) (i >>> PAGE_SHIFT)].get((int) (i & PAGE_MASK));
+    }
+
+    public int getY(long i) {
+        return yPages[(int) (i >>> PAGE_SHIFT)].get((int) (i & PAGE_MASK));
+    }
+
+    public void set(long i, int x, int y) {
+        int page = (int) (i >>> PAGE_SHIFT);
+        int offset = (int) (i & PAGE_MASK);
+        xPages[page].put(offset, x);
+        yPages[page].put(offset, y);
+    }
+
+    /**
+     * @param i index of the Vertex
+     * @return index of the following Vertex, wrapping around at the End of the closed Polygon.
+     */
+    public long next(long i) {
+        return (i + 1 == size) ? 0L : i + 1;
+    }
+
+    /**
+     * Copies the Vertices from .. from+length-1 into x and y, starting at offset.
+     */
+    public void get(long from, int[] x, int[] y, int offset, int length) {
+        transfer(xPages, from, x, offset, length, false);
+        transfer(yPages, from, y, offset, length, false);
+    }
+
+    /**
+     * Copies length Vertices from x and y, starting at offset, to the Vertices from .. from+length-1.
+     */
+    public void put(long from, int[] x, int[] y, int offset, int length) {
+        transfer(xPages, from, x, offset, length, true);
+        transfer(yPages, from, y, offset, length, true);
+    }
+
+    private static void transfer(IntBuffer[] pages, long from, int[] values, int offset, int length, boolean write) {
+        while (length > 0) {
+            int page = (int) (from >>> PAGE_SHIFT);
+            int pageOffset = (int) (from & PAGE_MASK);
+            int chunk = (int) Math.min(length, PAGE_SIZE - pageOffset);
+            if (write) {
+                pages[page].put(pageOffset, values, offset, chunk);
+            } else {
+                pages[page].get(pageOffset, values, offset, chunk);
+            }
+            from += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Drops the References to the Mappings, so they can be released, and closes the File.
+     */
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(xPages, null);
+        Arrays.fill(yPages, null);
+        channel.close();
+    }
+}
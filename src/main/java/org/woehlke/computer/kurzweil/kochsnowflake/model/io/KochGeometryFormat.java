@@ -0,0 +1,87 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary File Format for a computed Level, all Numbers in little endian Byte Order:
+ *
+ * <pre>
+ * int    magic          'K' 'O' 'C' 'H'
+ * int    version        1
+ * int    level
+ * int    scale          the Scale of the View the Level was computed for
+ * int    worldWidth
+ * int    worldHeight
+ * long   vertexCount
+ * int    blockSize      Vertices per Block
+ * int    blockCount
+ * long   indexOffset    Position of the Block Index in the File
+ * int    seedSize
+ * int[2] seed           x, y of each Vertex of the Seed
+ * byte[] blocks
+ * long[] index          Position of each Block in the File
+ * </pre>
+ *
+ * Each Block holds blockSize Vertices, the last one may hold less. The first Vertex of a Block is stored
+ * as Difference to (0, 0), every other as Difference to the Vertex before, x and y each as zigzag varint.
+ * Consecutive Koch Vertices are close together, so most Differences take one Byte.
+ * Because every Block starts again from (0, 0), Blocks can be decoded independently and in parallel.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochGeometryWriter
+ * @see KochGeometryReader
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+public final class KochGeometryFormat {
+
+    public static final int MAGIC = 'K' | 'O' << 8 | 'C' << 16 | 'H' << 24;
+
+    public static final int VERSION = 1;
+
+    public static final String EXTENSION = ".koch";
+
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Bytes of the Header before the Seed.
+     */
+    static final int HEADER_SIZE = 52;
+
+    /**
+     * Position of indexOffset in the Header.
+     */
+    static final int INDEX_OFFSET_POSITION = 40;
+
+    /**
+     * A zigzag varint of an int takes at most 5 Bytes.
+     */
+    static final int MAX_VARINT = 5;
+
+    private KochGeometryFormat() {
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        int rest = zigzag(value);
+        while ((rest & ~0x7F) != 0) {
+            buffer.put((byte) ((rest & 0x7F) | 0x80));
+            rest >>>= 7;
+        }
+        buffer.put((byte) rest);
+    }
+}
@@ -0,0 +1,223 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.io;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.log4j.Log4j2;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Reads a Level in the KochGeometryFormat from a memory mapped File.
+ * Only the Header and the Block Index are read on open; the Blocks are decoded on Demand,
+ * one at a Time or all of them in parallel.
+ *
+ * A MappedByteBuffer is limited to 2 GiB, so like MappedLatticePointArray the File is mapped in Regions of 1 GiB.
+ * Each Region overlaps the next one by the largest Size of an encoded Block,
+ * so every Block, and every Number of the Header and the Index, lies within the Region it starts in.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochGeometryFormat
+ * @see KochGeometryWriter
+ * @see org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.MappedLatticePointArray
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Log4j2
+@Getter
+@ToString(of = {"file", "level", "vertexCount"})
+public class KochGeometryReader implements Closeable {
+
+    /**
+     * Bytes per Region are 2^REGION_SHIFT.
+     */
+    private static final int REGION_SHIFT = 30;
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final long fileSize;
+
+    private final int regionShift;
+
+    private final MappedByteBuffer[] regions;
+
+    private final int level;
+
+    private final int scale;
+
+    private final LatticeDimension worldDimensions;
+
+    private final long vertexCount;
+
+    private final int blockSize;
+
+    private final int blockCount;
+
+    private final LatticePointArray seed;
+
+    private final long[] blockOffsets;
+
+    private KochGeometryReader(Path file, FileChannel channel, int regionShift) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.regionShift = regionShift;
+        ByteBuffer header = ByteBuffer.allocate(KochGeometryFormat.HEADER_SIZE).order(KochGeometryFormat.BYTE_ORDER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("not a Koch Geometry File: " + file);
+            }
+        }
+        if (header.getInt(0) != KochGeometryFormat.MAGIC) {
+            throw new IOException("not a Koch Geometry File: " + file);
+        }
+        if (header.getInt(4) != KochGeometryFormat.VERSION) {
+            throw new IOException("unsupported Version " + header.getInt(4) + " of " + file);
+        }
+        this.level = header.getInt(8);
+        this.scale = header.getInt(12);
+        this.worldDimensions = LatticeDimension.of(header.getInt(16), header.getInt(20));
+        this.vertexCount = header.getLong(24);
+        this.blockSize = header.getInt(32);
+        this.blockCount = header.getInt(36);
+        long indexOffset = header.getLong(KochGeometryFormat.INDEX_OFFSET_POSITION);
+        int seedSize = header.getInt(48);
+        long regionSize = 1L << regionShift;
+        long overlap = Math.max(8L, 2L * KochGeometryFormat.MAX_VARINT * blockSize);
+        if (regionSize + overlap > Integer.MAX_VALUE) {
+            throw new IOException("Blocks of " + blockSize + " Vertices are too large to be mapped: " + file);
+        }
+        this.regions = new MappedByteBuffer[(int) ((fileSize + regionSize - 1) >>> regionShift)];
+        for (int region = 0; region < regions.length; region++) {
+            long first = ((long) region) << regionShift;
+            this.regions[region] = channel.map(
+                FileChannel.MapMode.READ_ONLY, first, Math.min(regionSize + overlap, fileSize - first)
+            );
+            this.regions[region].order(KochGeometryFormat.BYTE_ORDER);
+        }
+        this.seed = new LatticePointArray(seedSize);
+        for (int i = 0; i < seedSize; i++) {
+            long position = KochGeometryFormat.HEADER_SIZE + 8L * i;
+            this.seed.set(i, region(position).getInt(offset(position)), region(position + 4).getInt(offset(position + 4)));
+        }
+        if (indexOffset + 8L * blockCount != fileSize) {
+            throw new IOException("incomplete Koch Geometry File: " + file);
+        }
+        this.blockOffsets = new long[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            long position = indexOffset + 8L * block;
+            this.blockOffsets[block] = region(position).getLong(offset(position));
+        }
+    }
+
+    public static KochGeometryReader open(Path file) throws IOException {
+        return open(file, REGION_SHIFT);
+    }
+
+    /**
+     * @param regionShift Bytes per mapped Region are 2^regionShift, smaller Regions let Tests cross their Borders.
+     */
+    static KochGeometryReader open(Path file, int regionShift) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new KochGeometryReader(file, channel, regionShift);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private MappedByteBuffer region(long position) {
+        return regions[(int) (position >>> regionShift)];
+    }
+
+    private int offset(long position) {
+        return (int) (position & ((1L << regionShift) - 1));
+    }
+
+    /**
+     * @param block 0 .. blockCount-1
+     * @return number of Vertices in the Block
+     */
+    public int blockLength(int block) {
+        return (int) Math.min(blockSize, vertexCount - ((long) block) * blockSize);
+    }
+
+    /**
+     * Decodes one Block. Thread safe, Blocks can be read in parallel.
+     *
+     * @param block 0 .. blockCount-1
+     * @param x receives the horizontal Coordinates from offset on
+     * @param y receives the vertical Coordinates from offset on
+     * @param offset first Index written in x and y
+     * @return number of Vertices decoded
+     */
+    public int readBlock(int block, int[] x, int[] y, int offset) {
+        int length = blockLength(block);
+        MappedByteBuffer data = region(blockOffsets[block]);
+        int position = offset(blockOffsets[block]);
+        int px = 0;
+        int py = 0;
+        for (int i = 0; i < length; i++) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data.get(position++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            px += KochGeometryFormat.unzigzag(value);
+            value = 0;
+            shift = 0;
+            do {
+                b = data.get(position++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            py += KochGeometryFormat.unzigzag(value);
+            x[offset + i] = px;
+            y[offset + i] = py;
+        }
+        return length;
+    }
+
+    /**
+     * @return all Vertices, the Blocks are decoded in parallel.
+     */
+    public LatticePointArray readVertices() {
+        if (vertexCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("too many Vertices for a LatticePointArray: " + vertexCount);
+        }
+        long start = System.currentTimeMillis();
+        LatticePointArray vertices = new LatticePointArray((int) vertexCount);
+        IntStream.range(0, blockCount).parallel().forEach(block ->
+            readBlock(block, vertices.getX(), vertices.getY(), block * blockSize)
+        );
+        log.info("read " + file + " level: " + level + " vertices: " + vertexCount
+            + " in " + (System.currentTimeMillis() - start) + " ms");
+        return vertices;
+    }
+
+    /**
+     * Closes the Channel, the Mappings are released with their Buffers.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,209 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.io;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.MappedLatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochLevel;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.MappedKochLevels;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes a Level in the KochGeometryFormat, streaming: Vertices are appended one by one or in Chunks
+ * and go through a fixed Buffer into the File. The Block Index and the Counts in the Header are written by close.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochGeometryFormat
+ * @see KochGeometryReader
+ * @see LinkedListNodeContainer
+ * @see MappedKochLevels
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Log4j2
+@Getter
+public class KochGeometryWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int CHUNK = 1 << 16;
+
+    private final Path file;
+
+    private final int blockSize;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Bytes already written from the Buffer to the File.
+     */
+    private long written;
+
+    private long vertexCount;
+
+    private long[] blockOffsets = new long[16];
+
+    private int blockCount;
+
+    private int lastX;
+
+    private int lastY;
+
+    public KochGeometryWriter(
+        Path file, int level, int scale, LatticeDimension world, LatticePointArray seed, int blockSize
+    ) throws IOException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        this.file = file;
+        this.blockSize = blockSize;
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, KochGeometryFormat.HEADER_SIZE + 8 * seed.getSize()))
+            .order(KochGeometryFormat.BYTE_ORDER);
+        this.buffer.putInt(KochGeometryFormat.MAGIC)
+            .putInt(KochGeometryFormat.VERSION)
+            .putInt(level)
+            .putInt(scale)
+            .putInt(world.getWidth())
+            .putInt(world.getHeight())
+            .putLong(0L)
+            .putInt(blockSize)
+            .putInt(0)
+            .putLong(0L)
+            .putInt(seed.getSize());
+        for (int i = 0; i < seed.getSize(); i++) {
+            this.buffer.putInt(seed.getX(i)).putInt(seed.getY(i));
+        }
+    }
+
+    /**
+     * Writes the current Level of the Container.
+     *
+     * @param file will be created or truncated
+     * @param container a started Container
+     * @param scale the Scale of the View
+     * @throws IOException if the File cannot be written
+     */
+    public static void write(Path file, LinkedListNodeContainer container, int scale) throws IOException {
+        long start = System.currentTimeMillis();
+        KochLevel level = container.getSnapshot();
+        try (KochGeometryWriter writer = new KochGeometryWriter(
+            file, level.getLevel(), scale, container.getWorldDimensions(),
+            container.getVertexLookup().getSeed(), KochGeometryFormat.DEFAULT_BLOCK_SIZE
+        )) {
+            writer.append(level.getVertices());
+        }
+        log.info("write " + file + " level: " + level.getLevel() + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Writes the current Level of memory mapped Levels, which may be larger than the Heap.
+     *
+     * @param file will be created or truncated
+     * @param mappedLevels started from the Seed of the Container
+     * @param container a started Container, for the Seed and the World
+     * @param scale the Scale of the View
+     * @throws IOException if the File cannot be written
+     */
+    public static void write(Path file, MappedKochLevels mappedLevels, LinkedListNodeContainer container, int scale) throws IOException {
+        long start = System.currentTimeMillis();
+        try (KochGeometryWriter writer = new KochGeometryWriter(
+            file, mappedLevels.getLevel(), scale, container.getWorldDimensions(),
+            container.getVertexLookup().getSeed(), KochGeometryFormat.DEFAULT_BLOCK_SIZE
+        )) {
+            writer.append(mappedLevels.getVertices());
+        }
+        log.info("write " + file + " level: " + mappedLevels.getLevel() + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    public void append(int x, int y) throws IOException {
+        if (buffer.remaining() < 2 * KochGeometryFormat.MAX_VARINT) {
+            flush();
+        }
+        if (vertexCount % blockSize == 0) {
+            if (blockCount == blockOffsets.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, 2 * blockCount);
+            }
+            blockOffsets[blockCount++] = written + buffer.position();
+            lastX = 0;
+            lastY = 0;
+        }
+        KochGeometryFormat.putVarint(buffer, x - lastX);
+        KochGeometryFormat.putVarint(buffer, y - lastY);
+        lastX = x;
+        lastY = y;
+        vertexCount++;
+    }
+
+    public void append(LatticePointArray vertices) throws IOException {
+        int[] x = vertices.getX();
+        int[] y = vertices.getY();
+        for (int i = 0; i < vertices.getSize(); i++) {
+            append(x[i], y[i]);
+        }
+    }
+
+    /**
+     * Appends a Level larger than the Heap, read in Chunks.
+     */
+    public void append(MappedLatticePointArray vertices) throws IOException {
+        int[] x = new int[CHUNK];
+        int[] y = new int[CHUNK];
+        for (long from = 0; from < vertices.getSize(); from += CHUNK) {
+            int length = (int) Math.min(CHUNK, vertices.getSize() - from);
+            vertices.get(from, x, y, 0, length);
+            for (int i = 0; i < length; i++) {
+                append(x[i], y[i]);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the Block Index, completes the Header and closes the File.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long indexOffset = written + buffer.position();
+            for (int block = 0; block < blockCount; block++) {
+                if (buffer.remaining() < 8) {
+                    flush();
+                }
+                buffer.putLong(blockOffsets[block]);
+            }
+            flush();
+            ByteBuffer counts = ByteBuffer.allocate(8 + 4 + 4 + 8).order(KochGeometryFormat.BYTE_ORDER);
+            counts.putLong(vertexCount).putInt(blockSize).putInt(blockCount).putLong(indexOffset).flip();
+            long position = KochGeometryFormat.INDEX_OFFSET_POSITION - 16;
+            while (counts.hasRemaining()) {
+                position += channel.write(counts, position);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
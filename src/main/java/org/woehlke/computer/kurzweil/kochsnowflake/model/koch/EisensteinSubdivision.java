@@ -0,0 +1,97 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePoint;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+
+/**
+ * The Koch Rule on the triangular Lattice of Eisenstein Integers a + b*w with w = e^(i*pi/3), without any Rounding.
+ *
+ * A LatticePointArray holds a in x and b in y. Level n is scaled by 3^n, so every Segment of Level n has Length 1
+ * and the Seed Triangle is 0, 1, w. Each Step multiplies the Vertices by 3 and inserts the new Points
+ * p0, p0 + d, p0 + d + conj(w)*d, p0 + 2*d with conj(w)*(a + b*w) = (a + b) - a*w,
+ * so only Additions and Shifts are needed. Pixel Coordinates are computed by toLatticePoints at Render Time.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochSubdivision
+ * @see LinkedListNodeContainer
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Eisenstein_integer">Eisenstein integer</a>
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+public final class EisensteinSubdivision {
+
+    /**
+     * Highest Level whose 3 * 4^level Vertices still fit into the int Arrays of a LatticePointArray,
+     * at most Integer.MAX_VALUE - 8 Elements. The Coordinates, scaled by 3^level, would fit into an int up to Level 19.
+     */
+    public static final int MAX_LEVEL = 14;
+
+    private static final double HALF_SQRT_3 = Math.sqrt(3.0d) / 2.0d;
+
+    private EisensteinSubdivision() {
+    }
+
+    /**
+     * @return the Seed Triangle 0, 1, w of Level 0, counter clockwise with the Bends pointing outwards.
+     */
+    public static LatticePointArray seed() {
+        return LatticePointArray.of(
+            new LatticePoint(0, 0),
+            new LatticePoint(1, 0),
+            new LatticePoint(0, 1)
+        );
+    }
+
+    public static LatticePointArray subdivide(LatticePointArray level) {
+        LatticePointArray nextLevel = new LatticePointArray(4 * level.getSize());
+        int[] a = level.getX();
+        int[] b = level.getY();
+        int[] na = nextLevel.getX();
+        int[] nb = nextLevel.getY();
+        int size = level.getSize();
+        for (int i = 0; i < size; i++) {
+            int j = (i + 1 == size) ? 0 : i + 1;
+            int da = a[j] - a[i];
+            int db = b[j] - b[i];
+            int a0 = (a[i] << 1) + a[i];
+            int b0 = (b[i] << 1) + b[i];
+            int k = 4 * i;
+            na[k] = a0;
+            nb[k] = b0;
+            na[k + 1] = a0 + da;
+            nb[k + 1] = b0 + db;
+            na[k + 2] = a0 + da + da + db;
+            nb[k + 2] = b0 + db - da;
+            na[k + 3] = a0 + (da << 1);
+            nb[k + 3] = b0 + (db << 1);
+        }
+        return nextLevel;
+    }
+
+    /**
+     * Projects a Level to Pixels, with the Seed Triangle from start() on Screen, where y is pointing down.
+     *
+     * @param level Eisenstein Coordinates of the Level
+     * @param depth number of the Level, the Coordinates are scaled by 3^depth
+     * @param origin Pixel of the Vertex 0, the left bottom Corner of the Seed Triangle
+     * @param side Length of a Side of the Seed Triangle in Pixel
+     * @return the Vertices in Pixel Coordinates
+     */
+    public static LatticePointArray toLatticePoints(LatticePointArray level, int depth, LatticePoint origin, int side) {
+        double unit = side / Math.pow(3.0d, depth);
+        int[] a = level.getX();
+        int[] b = level.getY();
+        LatticePointArray result = new LatticePointArray(level.getSize());
+        int[] x = result.getX();
+        int[] y = result.getY();
+        for (int i = 0; i < level.getSize(); i++) {
+            x[i] = origin.getX() + (int) Math.round(unit * (a[i] + 0.5d * b[i]));
+            y[i] = origin.getY() - (int) Math.round(unit * HALF_SQRT_3 * b[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+
+import java.util.Arrays;
+
+/**
+ * Level of Detail: refines each Segment only while it is longer than a Tolerance in Pixels.
+ *
+ * Segments which are short enough are kept as they are, so different Parts of the Polygon stop at different Depths,
+ * but the Polygon stays closed because every Segment still ends where the next one starts.
+ * Beyond the Depth where all Segments are below a Pixel the Result does not change any more,
+ * so Memory and Draw Calls are bounded by the Resolution of the Screen and not by 4^n.
+ *
+ * The Coordinates are those of the Koch Rule without Rounding, like in KochVertexLookup.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochSubdivision
+ * @see KochViewportSubdivision
+ * @see LinkedListNodeContainer
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+public class KochAdaptiveSubdivision {
+
+    private final LatticePointArray seed;
+
+    public KochAdaptiveSubdivision(LatticePointArray seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param level the deepest Level, 0 .. KochVertexLookup.MAX_LEVEL
+     * @param pixelTolerance Segments not longer than this on Screen are not refined
+     * @param pixelsPerUnit Scale from World Coordinates to Pixels on Screen
+     * @return the closed Polygon, in the same Order as the Vertices of the Level
+     */
+    public LatticePointArray vertices(int level, double pixelTolerance, double pixelsPerUnit) {
+        if (level < 0 || level > KochVertexLookup.MAX_LEVEL) {
+            throw new IllegalArgumentException("level out of range: " + level);
+        }
+        if (!(pixelTolerance > 0.0d) || !(pixelsPerUnit > 0.0d)) {
+            throw new IllegalArgumentException("pixelTolerance and pixelsPerUnit must be positive");
+        }
+        double maxLength = pixelTolerance / pixelsPerUnit;
+        Vertices result = new Vertices();
+        double[] stack = new double[4 * (level + 1)];
+        for (int edge = 0; edge < seed.getSize(); edge++) {
+            int next = seed.next(edge);
+            stack[0] = seed.getX(edge);
+            stack[1] = seed.getY(edge);
+            stack[2] = seed.getX(next);
+            stack[3] = seed.getY(next);
+            descend(level, 0, stack, maxLength * maxLength, result);
+        }
+        return result.toLatticePointArray();
+    }
+
+    private void descend(int level, int depth, double[] stack, double maxLengthSquared, Vertices result) {
+        int offset = 4 * depth;
+        double dx = stack[offset + 2] - stack[offset];
+        double dy = stack[offset + 3] - stack[offset + 1];
+        if (depth == level || dx * dx + dy * dy <= maxLengthSquared) {
+            result.add((int) Math.round(stack[offset]), (int) Math.round(stack[offset + 1]));
+            return;
+        }
+        for (int digit = 0; digit < 4; digit++) {
+            KochSubdivision.childSegment(digit, stack, offset, offset + 4);
+            descend(level, depth + 1, stack, maxLengthSquared, result);
+        }
+    }
+
+    /**
+     * Growing Vertex Buffer, trimmed at the End.
+     */
+    private static class Vertices {
+
+        private int[] x = new int[1024];
+        private int[] y = new int[1024];
+        private int size = 0;
+
+        void add(int px, int py) {
+            if (size == x.length) {
+                x = Arrays.copyOf(x, 2 * size);
+                y = Arrays.copyOf(y, 2 * size);
+            }
+            x[size] = px;
+            y[size] = py;
+            size++;
+        }
+
+        LatticePointArray toLatticePointArray() {
+            return new LatticePointArray(Arrays.copyOf(x, size), Arrays.copyOf(y, size));
+        }
+    }
+}
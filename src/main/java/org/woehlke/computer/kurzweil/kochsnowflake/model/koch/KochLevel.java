@@ -0,0 +1,97 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePoint;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+
+/**
+ * Snapshot of one computed Level: its Number and its Vertices, which are never changed after the Snapshot is published.
+ *
+ * LinkedListNodeContainer builds a new Snapshot for every Step and publishes it with one atomic Swap,
+ * so a Reader, e.g. paint on the Event Dispatch Thread, takes the Snapshot once and gets a Level Number
+ * and Vertices which belong together, without Locks and without ever blocking the computing Thread.
+ *
+ * What is derived from the Vertices, the Projection of exactGeometry and the KochSegmentTree, is computed
+ * at the first Call and kept. Both are pure Functions of the Snapshot: if two Threads compute them at the same Time,
+ * both get equal Results and one of them is kept.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see LinkedListNodeContainer
+ * @see KochSegmentTree
+ * @see EisensteinSubdivision
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@ToString(of = {"level"})
+public final class KochLevel {
+
+    /**
+     * Before the first Start: Level 0 without Vertices.
+     */
+    public static final KochLevel EMPTY = new KochLevel(0, new LatticePointArray(0));
+
+    @Getter
+    private final int level;
+
+    /**
+     * The Level in Eisenstein Coordinates, only with exactGeometry, else null.
+     */
+    @Getter
+    private final LatticePointArray eisensteinVertices;
+
+    private final LatticePoint seedOrigin;
+
+    private final int seedSide;
+
+    private volatile LatticePointArray vertices;
+
+    private volatile KochSegmentTree segmentTree;
+
+    public KochLevel(int level, LatticePointArray vertices) {
+        this.level = level;
+        this.vertices = vertices;
+        this.eisensteinVertices = null;
+        this.seedOrigin = null;
+        this.seedSide = 0;
+    }
+
+    /**
+     * A Level of exactGeometry, projected to Pixels at the first Call of getVertices.
+     */
+    public KochLevel(int level, LatticePointArray eisensteinVertices, LatticePoint seedOrigin, int seedSide) {
+        this.level = level;
+        this.vertices = null;
+        this.eisensteinVertices = eisensteinVertices;
+        this.seedOrigin = seedOrigin;
+        this.seedSide = seedSide;
+    }
+
+    /**
+     * @return the Vertices of the Level in Pixel Coordinates, as closed Polygon.
+     */
+    public LatticePointArray getVertices() {
+        LatticePointArray result = this.vertices;
+        if (result == null) {
+            result = EisensteinSubdivision.toLatticePoints(this.eisensteinVertices, this.level, this.seedOrigin, this.seedSide);
+            this.vertices = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the Bounding Volume Hierarchy of the Vertices, built at the first Call.
+     */
+    public KochSegmentTree getSegmentTree() {
+        KochSegmentTree result = this.segmentTree;
+        if (result == null) {
+            result = KochSegmentTree.build(getVertices());
+            this.segmentTree = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,144 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeSegmentArray;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hands the finished Chunks of a Level, which is still being computed, from the computing Thread to the View,
+ * together with the Progress, and lets the View cancel the Computation.
+ *
+ * The computing Thread publishes the Segments of each Chunk as soon as they are subdivided, in the Order of the Polygon;
+ * the View polls them and draws them on top of the Level before. The Queue is lock-free, so neither Side ever waits
+ * for the other, and offer and poll order the Writes of the Segments before their Reads.
+ * After each Chunk and at the End the Listener is called, e.g. to repaint the Canvas.
+ * Without drawSegments only the Progress is published, and the Segments are not kept.
+ *
+ * The computing Thread checks between the Chunks whether the Computation was cancelled or its Time Budget is spent,
+ * and then stops with a CancellationException. The Time Budget starts when the computing Thread takes up the Level,
+ * not when it is requested, so waiting behind another Computation does not spend it.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see LinkedListNodeContainer
+ * @see ConcurrentLinkedQueue
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Getter
+@ToString(of = {"level", "segmentsDone", "segmentsTotal", "complete", "cancelled"})
+public class KochLevelChunks {
+
+    /**
+     * Segments of the Level before per Chunk, each becomes four Segments of the new Level.
+     */
+    public static final int CHUNK = 4096;
+
+    /**
+     * The Level being computed.
+     */
+    private final int level;
+
+    private final Runnable listener;
+
+    private final ConcurrentLinkedQueue<LatticeSegmentArray> chunks = new ConcurrentLinkedQueue<>();
+
+    private final boolean drawSegments;
+
+    private final long timeBudgetNanos;
+
+    private final boolean limited;
+
+    /**
+     * System.nanoTime when the Time Budget is spent, set by begin.
+     */
+    private volatile long deadline;
+
+    private volatile boolean begun = false;
+
+    private volatile long segmentsDone = 0;
+
+    private volatile long segmentsTotal = 0;
+
+    private volatile boolean complete = false;
+
+    private volatile boolean cancelled = false;
+
+    public KochLevelChunks(int level, Runnable listener) {
+        this(level, listener, true, 0L);
+    }
+
+    /**
+     * @param level the Level being computed
+     * @param listener called after each Chunk and at the End
+     * @param drawSegments false to publish only the Progress
+     * @param timeBudgetMillis the Computation is cancelled after so many Milliseconds, 0 for no Limit
+     */
+    public KochLevelChunks(int level, Runnable listener, boolean drawSegments, long timeBudgetMillis) {
+        this.level = level;
+        this.listener = listener;
+        this.drawSegments = drawSegments;
+        this.limited = timeBudgetMillis > 0;
+        this.timeBudgetNanos = 1000000L * timeBudgetMillis;
+    }
+
+    /**
+     * Starts the Time Budget, called by the computing Thread before the first Segment.
+     */
+    void begin() {
+        this.deadline = System.nanoTime() + this.timeBudgetNanos;
+        this.begun = true;
+    }
+
+    void start(long segmentsTotal) {
+        this.segmentsTotal = segmentsTotal;
+        this.segmentsDone = 0;
+    }
+
+    void publish(long segmentsDone, LatticeSegmentArray chunk) {
+        if (this.drawSegments) {
+            this.chunks.offer(chunk);
+        }
+        this.segmentsDone = segmentsDone;
+        this.listener.run();
+    }
+
+    void complete() {
+        this.segmentsDone = this.segmentsTotal;
+        this.complete = true;
+        this.listener.run();
+    }
+
+    /**
+     * May be called from any Thread, the computing Thread stops at the next Chunk.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * @throws CancellationException if cancel was called or the Time Budget is spent
+     */
+    void checkCancelled() {
+        if (this.cancelled) {
+            throw new CancellationException("Level " + this.level + " cancelled");
+        }
+        if (this.limited && this.begun && System.nanoTime() - this.deadline > 0) {
+            this.cancelled = true;
+            throw new CancellationException("Level " + this.level + " exceeded its Time Budget");
+        }
+    }
+
+    /**
+     * @return the next finished Chunk, or null if none has arrived since the last Call
+     */
+    public LatticeSegmentArray poll() {
+        return this.chunks.poll();
+    }
+}
@@ -0,0 +1,310 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import lombok.Getter;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+
+import java.util.Arrays;
+
+/**
+ * Bounding Volume Hierarchy over the Segments of a Level, for Hit Testing and nearest Segment Queries.
+ *
+ * The Tree follows the Koch Recursion: the Segments 4k .. 4k+3 of Level n are the Children of Segment k of Level n-1,
+ * so the Node k at Height h covers the Segments k * 4^h .. (k+1) * 4^h - 1, which is the Subcurve of Segment k
+ * at Level n-h. The Roots at the top Height are the Edges of the Seed Triangle.
+ * Each Node holds the Bounding Box of its Subcurve. The Boxes are taken from the Vertices as they are,
+ * because the Levels are rounded to Lattice Points at every Step and the analytic Bounding Triangle
+ * would need a Padding growing with the Level. The Leaves are the Segments themselves and are not stored.
+ *
+ * Queries only descend into Nodes whose Box can contain a Result, so they visit O(log n) Nodes
+ * for a Point and the Results plus O(log n) for a Region.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochViewportSubdivision
+ * @see LinkedListNodeContainer
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Getter
+public class KochSegmentTree {
+
+    private final LatticePointArray vertices;
+
+    /**
+     * Bounding Boxes per Height, minX[h-1][k] is for Node k at Height h.
+     */
+    private final int[][] minX;
+    private final int[][] minY;
+    private final int[][] maxX;
+    private final int[][] maxY;
+
+    private KochSegmentTree(LatticePointArray vertices, int[][] minX, int[][] minY, int[][] maxX, int[][] maxY) {
+        this.vertices = vertices;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * @param vertices a closed Polygon, usually a Level of LinkedListNodeContainer
+     * @return the Tree, in O(n)
+     */
+    public static KochSegmentTree build(LatticePointArray vertices) {
+        int size = vertices.getSize();
+        int heights = 0;
+        for (long nodes = size; nodes > 4; nodes = (nodes + 3) / 4) {
+            heights++;
+        }
+        int[][] minX = new int[heights][];
+        int[][] minY = new int[heights][];
+        int[][] maxX = new int[heights][];
+        int[][] maxY = new int[heights][];
+        int children = size;
+        for (int h = 0; h < heights; h++) {
+            int nodes = (children + 3) / 4;
+            minX[h] = new int[nodes];
+            minY[h] = new int[nodes];
+            maxX[h] = new int[nodes];
+            maxY[h] = new int[nodes];
+            Arrays.fill(minX[h], Integer.MAX_VALUE);
+            Arrays.fill(minY[h], Integer.MAX_VALUE);
+            Arrays.fill(maxX[h], Integer.MIN_VALUE);
+            Arrays.fill(maxY[h], Integer.MIN_VALUE);
+            for (int child = 0; child < children; child++) {
+                int node = child >>> 2;
+                if (h == 0) {
+                    int next = vertices.next(child);
+                    int x1 = vertices.getX(child);
+                    int y1 = vertices.getY(child);
+                    int x2 = vertices.getX(next);
+                    int y2 = vertices.getY(next);
+                    minX[0][node] = Math.min(minX[0][node], Math.min(x1, x2));
+                    minY[0][node] = Math.min(minY[0][node], Math.min(y1, y2));
+                    maxX[0][node] = Math.max(maxX[0][node], Math.max(x1, x2));
+                    maxY[0][node] = Math.max(maxY[0][node], Math.max(y1, y2));
+                } else {
+                    minX[h][node] = Math.min(minX[h][node], minX[h - 1][child]);
+                    minY[h][node] = Math.min(minY[h][node], minY[h - 1][child]);
+                    maxX[h][node] = Math.max(maxX[h][node], maxX[h - 1][child]);
+                    maxY[h][node] = Math.max(maxY[h][node], maxY[h - 1][child]);
+                }
+            }
+            children = nodes;
+        }
+        return new KochSegmentTree(vertices, minX, minY, maxX, maxY);
+    }
+
+    /**
+     * @param x horizontal World Coordinate
+     * @param y vertical World Coordinate
+     * @return Index of the Segment nearest to the Point, or -1 if there are no Segments
+     */
+    public int nearestSegment(double x, double y) {
+        Nearest nearest = new Nearest();
+        for (int root = 0; root < rootCount(); root++) {
+            nearest(minX.length, root, x, y, nearest);
+        }
+        return nearest.index;
+    }
+
+    /**
+     * @param x horizontal World Coordinate
+     * @param y vertical World Coordinate
+     * @param radius maximal Distance from the Point
+     * @return Indices of all Segments not farther than radius from the Point, ascending
+     */
+    public int[] segmentsWithinRadius(double x, double y, double radius) {
+        Indices result = new Indices();
+        for (int root = 0; root < rootCount(); root++) {
+            withinRadius(minX.length, root, x, y, radius * radius, result);
+        }
+        return result.toArray();
+    }
+
+    /**
+     * @param rectangle a Region in World Coordinates
+     * @return Indices of all Segments which intersect the Rectangle, ascending
+     */
+    public int[] segmentsInRectangle(LatticeRectangle rectangle) {
+        int left = rectangle.getStart().getX();
+        int top = rectangle.getStart().getY();
+        int right = left + rectangle.getDimension().getWidth();
+        int bottom = top + rectangle.getDimension().getHeight();
+        Indices result = new Indices();
+        for (int root = 0; root < rootCount(); root++) {
+            inRectangle(minX.length, root, left, top, right, bottom, result);
+        }
+        return result.toArray();
+    }
+
+    /**
+     * @param index Index of a Segment
+     * @param x horizontal World Coordinate
+     * @param y vertical World Coordinate
+     * @return the squared Distance of the Point to the Segment
+     */
+    public double distanceSquared(int index, double x, double y) {
+        int next = vertices.next(index);
+        double ax = vertices.getX(index);
+        double ay = vertices.getY(index);
+        double dx = vertices.getX(next) - ax;
+        double dy = vertices.getY(next) - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0.0d ? 0.0d : ((x - ax) * dx + (y - ay) * dy) / lengthSquared;
+        t = Math.max(0.0d, Math.min(1.0d, t));
+        double ex = ax + t * dx - x;
+        double ey = ay + t * dy - y;
+        return ex * ex + ey * ey;
+    }
+
+    private int rootCount() {
+        return minX.length == 0 ? vertices.getSize() : minX[minX.length - 1].length;
+    }
+
+    /**
+     * Index of the first Child of a Node, the Children are at the next lower Height.
+     */
+    private int firstChild(int node) {
+        return node << 2;
+    }
+
+    /**
+     * Number of Nodes at the Height below height, which is the Number of Segments below Height 1.
+     */
+    private int childCount(int height) {
+        return height == 1 ? vertices.getSize() : minX[height - 2].length;
+    }
+
+    private double boxDistanceSquared(int height, int node, double x, double y) {
+        int h = height - 1;
+        double dx = Math.max(Math.max(minX[h][node] - x, 0.0d), x - maxX[h][node]);
+        double dy = Math.max(Math.max(minY[h][node] - y, 0.0d), y - maxY[h][node]);
+        return dx * dx + dy * dy;
+    }
+
+    private void nearest(int height, int node, double x, double y, Nearest nearest) {
+        if (height == 0) {
+            double distance = distanceSquared(node, x, y);
+            if (distance < nearest.distanceSquared) {
+                nearest.distanceSquared = distance;
+                nearest.index = node;
+            }
+            return;
+        }
+        if (boxDistanceSquared(height, node, x, y) >= nearest.distanceSquared) {
+            return;
+        }
+        int first = firstChild(node);
+        int last = Math.min(first + 4, childCount(height));
+        if (height == 1) {
+            for (int child = first; child < last; child++) {
+                nearest(0, child, x, y, nearest);
+            }
+            return;
+        }
+        int count = last - first;
+        int[] order = new int[count];
+        double[] distances = new double[count];
+        for (int c = 0; c < count; c++) {
+            order[c] = first + c;
+            distances[c] = boxDistanceSquared(height - 1, first + c, x, y);
+        }
+        for (int c = 1; c < count; c++) {
+            for (int d = c; d > 0 && distances[d] < distances[d - 1]; d--) {
+                double distance = distances[d];
+                distances[d] = distances[d - 1];
+                distances[d - 1] = distance;
+                int child = order[d];
+                order[d] = order[d - 1];
+                order[d - 1] = child;
+            }
+        }
+        for (int c = 0; c < count; c++) {
+            nearest(height - 1, order[c], x, y, nearest);
+        }
+    }
+
+    private void withinRadius(int height, int node, double x, double y, double radiusSquared, Indices result) {
+        if (height == 0) {
+            if (distanceSquared(node, x, y) <= radiusSquared) {
+                result.add(node);
+            }
+            return;
+        }
+        if (boxDistanceSquared(height, node, x, y) > radiusSquared) {
+            return;
+        }
+        int first = firstChild(node);
+        int last = Math.min(first + 4, childCount(height));
+        for (int child = first; child < last; child++) {
+            withinRadius(height - 1, child, x, y, radiusSquared, result);
+        }
+    }
+
+    private void inRectangle(int height, int node, int left, int top, int right, int bottom, Indices result) {
+        if (height == 0) {
+            if (segmentIntersects(node, left, top, right, bottom)) {
+                result.add(node);
+            }
+            return;
+        }
+        int h = height - 1;
+        if (maxX[h][node] < left || minX[h][node] > right || maxY[h][node] < top || minY[h][node] > bottom) {
+            return;
+        }
+        int first = firstChild(node);
+        int last = Math.min(first + 4, childCount(height));
+        for (int child = first; child < last; child++) {
+            inRectangle(height - 1, child, left, top, right, bottom, result);
+        }
+    }
+
+    /**
+     * Separating Axes: the two Axes of the Rectangle and the Normal of the Segment.
+     */
+    private boolean segmentIntersects(int index, int left, int top, int right, int bottom) {
+        int next = vertices.next(index);
+        long x1 = vertices.getX(index);
+        long y1 = vertices.getY(index);
+        long x2 = vertices.getX(next);
+        long y2 = vertices.getY(next);
+        if (Math.max(x1, x2) < left || Math.min(x1, x2) > right || Math.max(y1, y2) < top || Math.min(y1, y2) > bottom) {
+            return false;
+        }
+        long nx = y1 - y2;
+        long ny = x2 - x1;
+        long c = nx * x1 + ny * y1;
+        long s1 = Long.signum(nx * left + ny * top - c);
+        long s2 = Long.signum(nx * right + ny * top - c);
+        long s3 = Long.signum(nx * left + ny * bottom - c);
+        long s4 = Long.signum(nx * right + ny * bottom - c);
+        return !((s1 > 0 && s2 > 0 && s3 > 0 && s4 > 0) || (s1 < 0 && s2 < 0 && s3 < 0 && s4 < 0));
+    }
+
+    private static class Nearest {
+        private int index = -1;
+        private double distanceSquared = Double.POSITIVE_INFINITY;
+    }
+
+    private static class Indices {
+
+        private int[] indices = new int[16];
+        private int size = 0;
+
+        void add(int index) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, 2 * size);
+            }
+            indices[size++] = index;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(indices, size);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import lombok.extern.log4j.Log4j2;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePoint;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+
+/**
+ * Replaces every Segment of a closed Polygon by the four Segments of the Koch Rule.
+ * Computes the same Points as LatticePoint.getNewPoints, but on primitive Arrays:
+ * the Segment i of the old Level becomes the Segments 4*i .. 4*i+3 of the new Level.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see LatticePoint
+ * @see LatticePointArray
+ * @see KochSubdivisionKernel
+ * @see LinkedListNodeContainer
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Log4j2
+public final class KochSubdivision {
+
+    private static final double ONE_THIRD = 1.0d / 3.0d;
+
+    private static final double TWO_THIRD = 2.0d / 3.0d;
+
+    private KochSubdivision() {
+    }
+
+    /**
+     * @param name scalar or vector
+     * @return the Kernel, or the scalar Kernel if the Vector API is not available at Runtime.
+     */
+    public static KochSubdivisionKernel kernel(String name) {
+        if ("vector".equalsIgnoreCase(name)) {
+            try {
+                return new VectorKochSubdivision();
+            } catch (LinkageError | UnsupportedOperationException e) {
+                log.warn("Vector API not available, run with --add-modules jdk.incubator.vector. Using scalar Kernel. " + e);
+            }
+        } else if (!"scalar".equalsIgnoreCase(name)) {
+            throw new IllegalArgumentException("unknown subdivisionKernel: " + name);
+        }
+        return KochSubdivisionKernel.SCALAR;
+    }
+
+    public static LatticePointArray subdivide(LatticePointArray level) {
+        LatticePointArray nextLevel = new LatticePointArray(4 * level.getSize());
+        subdivide(level, nextLevel, 0, level.getSize());
+        return nextLevel;
+    }
+
+    /**
+     * @param level the current Level
+     * @param nextLevel presized to 4 * level.getSize()
+     * @param from first Segment of level, inclusive
+     * @param to last Segment of level, exclusive
+     */
+    public static void subdivide(LatticePointArray level, LatticePointArray nextLevel, int from, int to) {
+        int[] x = level.getX();
+        int[] y = level.getY();
+        int[] nx = nextLevel.getX();
+        int[] ny = nextLevel.getY();
+        int size = level.getSize();
+        for (int i = from; i < to; i++) {
+            int j = (i + 1 == size) ? 0 : i + 1;
+            int x0 = x[i];
+            int y0 = y[i];
+            double dx = x[j] - x0;
+            double dy = y[j] - y0;
+            int x1 = x0 + (int) Math.round(dx * ONE_THIRD);
+            int y1 = y0 + (int) Math.round(dy * ONE_THIRD);
+            int x3 = x0 + (int) Math.round(dx * TWO_THIRD);
+            int y3 = y0 + (int) Math.round(dy * TWO_THIRD);
+            double rx = x3 - x1;
+            double ry = y3 - y1;
+            int x2 = x1 + (int) (rx * LatticePoint.ROTATION_COS - ry * LatticePoint.ROTATION_SIN);
+            int y2 = y1 + (int) (rx * LatticePoint.ROTATION_SIN + ry * LatticePoint.ROTATION_COS);
+            int k = 4 * i;
+            nx[k] = x0;
+            ny[k] = y0;
+            nx[k + 1] = x1;
+            ny[k + 1] = y1;
+            nx[k + 2] = x2;
+            ny[k + 2] = y2;
+            nx[k + 3] = x3;
+            ny[k + 3] = y3;
+        }
+    }
+
+    /**
+     * The Koch Rule without Rounding, applied to one Segment stored as four doubles: ax, ay, bx, by.
+     *
+     * @param digit which of the four new Segments, 0 .. 3
+     * @param segments flat Array of Segments
+     * @param parent offset of the Segment to subdivide
+     * @param child offset where the new Segment is written
+     */
+    public static void childSegment(int digit, double[] segments, int parent, int child) {
+        double ax = segments[parent];
+        double ay = segments[parent + 1];
+        double bx = segments[parent + 2];
+        double by = segments[parent + 3];
+        double tx = (bx - ax) * ONE_THIRD;
+        double ty = (by - ay) * ONE_THIRD;
+        switch (digit) {
+            case 0 -> {
+                segments[child] = ax;
+                segments[child + 1] = ay;
+                segments[child + 2] = ax + tx;
+                segments[child + 3] = ay + ty;
+            }
+            case 1 -> {
+                segments[child] = ax + tx;
+                segments[child + 1] = ay + ty;
+                segments[child + 2] = ax + tx + tx * LatticePoint.ROTATION_COS - ty * LatticePoint.ROTATION_SIN;
+                segments[child + 3] = ay + ty + tx * LatticePoint.ROTATION_SIN + ty * LatticePoint.ROTATION_COS;
+            }
+            case 2 -> {
+                segments[child] = ax + tx + tx * LatticePoint.ROTATION_COS - ty * LatticePoint.ROTATION_SIN;
+                segments[child + 1] = ay + ty + tx * LatticePoint.ROTATION_SIN + ty * LatticePoint.ROTATION_COS;
+                segments[child + 2] = ax + tx + tx;
+                segments[child + 3] = ay + ty + ty;
+            }
+            default -> {
+                segments[child] = ax + tx + tx;
+                segments[child + 1] = ay + ty + ty;
+                segments[child + 2] = bx;
+                segments[child + 3] = by;
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+
+/**
+ * Subdivides the Segments from .. to-1 of a Level into the Slice 4*from .. 4*to-1 of the next Level.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochSubdivision
+ * @see VectorKochSubdivision
+ * @see KochSubdivisionTask
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@FunctionalInterface
+public interface KochSubdivisionKernel {
+
+    KochSubdivisionKernel SCALAR = KochSubdivision::subdivide;
+
+    void subdivide(LatticePointArray level, LatticePointArray nextLevel, int from, int to);
+}
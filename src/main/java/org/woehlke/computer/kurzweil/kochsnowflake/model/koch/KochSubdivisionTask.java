@@ -0,0 +1,82 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Subdivides a Range of Segments in parallel.
+ * Every Segment i writes only the Slice 4*i .. 4*i+3 of the next Level,
+ * so the Tasks never write the same Elements and need no Synchronization.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochSubdivision
+ * @see KochSubdivisionKernel
+ * @see LinkedListNodeContainer
+ * @see ForkJoinPool
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+public class KochSubdivisionTask extends RecursiveAction {
+
+    static final long serialVersionUID = 242L;
+
+    /**
+     * Segments per Task, if nothing is configured.
+     */
+    public static final int DEFAULT_THRESHOLD = 65536;
+
+    private final LatticePointArray level;
+    private final LatticePointArray nextLevel;
+    private final int from;
+    private final int to;
+    private final int threshold;
+    private final KochSubdivisionKernel kernel;
+
+    public KochSubdivisionTask(
+        LatticePointArray level, LatticePointArray nextLevel, int from, int to, int threshold, KochSubdivisionKernel kernel
+    ) {
+        this.level = level;
+        this.nextLevel = nextLevel;
+        this.from = from;
+        this.to = to;
+        this.threshold = Math.max(1, threshold);
+        this.kernel = kernel;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= threshold) {
+            kernel.subdivide(level, nextLevel, from, to);
+        } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                new KochSubdivisionTask(level, nextLevel, from, middle, threshold, kernel),
+                new KochSubdivisionTask(level, nextLevel, middle, to, threshold, kernel)
+            );
+        }
+    }
+
+    /**
+     * Runs sequentially in the calling Thread, if the Level has no more Segments than threshold.
+     *
+     * @param level the current Level
+     * @param threshold Segments per Task
+     * @param kernel subdivides the Segments of each Task
+     * @return the next Level
+     */
+    public static LatticePointArray subdivide(LatticePointArray level, int threshold, KochSubdivisionKernel kernel) {
+        LatticePointArray nextLevel = new LatticePointArray(4 * level.getSize());
+        if (level.getSize() <= threshold) {
+            kernel.subdivide(level, nextLevel, 0, level.getSize());
+        } else {
+            ForkJoinPool.commonPool().invoke(new KochSubdivisionTask(level, nextLevel, 0, level.getSize(), threshold, kernel));
+        }
+        return nextLevel;
+    }
+}
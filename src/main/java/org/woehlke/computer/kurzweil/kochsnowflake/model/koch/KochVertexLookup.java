@@ -0,0 +1,129 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import lombok.Getter;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+
+import java.io.Serializable;
+
+/**
+ * Random Access to the Vertices of any Level without computing the Levels before.
+ *
+ * The Vertex i of Level n is the Start of Segment i. Its Index is read as Address in the Recursion:
+ * the highest Part i / 4^n selects the Edge of the Seed Triangle,
+ * then each base-4 Digit selects one of the four new Segments of the Koch Rule.
+ * So a Lookup is O(n) and the Coordinates are those of the Koch Rule without Rounding,
+ * which is what LinkedListNodeContainer.step computes up to the Rounding to Lattice Points.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochSubdivision
+ * @see LinkedListNodeContainer
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Getter
+public class KochVertexLookup implements Serializable {
+
+    static final long serialVersionUID = 242L;
+
+    /**
+     * Highest Level where 3 * 4^level still fits into a long Index.
+     */
+    public static final int MAX_LEVEL = 30;
+
+    private final LatticePointArray seed;
+
+    public KochVertexLookup(LatticePointArray seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param level the Level
+     * @return number of Vertices and Segments of the closed Polygon at that Level.
+     */
+    public long vertexCount(int level) {
+        return ((long) seed.getSize()) << (2 * level);
+    }
+
+    /**
+     * Computes Segment index of Level level. Does not allocate.
+     *
+     * @param level the Level, 0 .. MAX_LEVEL
+     * @param index the Index of the Segment, which is also the Index of its Start Vertex
+     * @param segment four doubles: the Vertex index at 0,1 and the Vertex index+1 at 2,3
+     */
+    public void segmentAt(int level, long index, double[] segment) {
+        checkIndex(level, index);
+        loadSeedEdge(level, index, segment, 0);
+        for (int depth = 1; depth <= level; depth++) {
+            int digit = (int) (index >>> (2 * (level - depth))) & 3;
+            KochSubdivision.childSegment(digit, segment, 0, 0);
+        }
+    }
+
+    /**
+     * Fills x and y with the Vertices from .. from+count-1 of Level level.
+     * Consecutive Vertices share the Prefix of their Address, so only the changed Digits are recomputed.
+     *
+     * @param level the Level, 0 .. MAX_LEVEL
+     * @param from Index of the first Vertex
+     * @param count number of Vertices
+     * @param x receives the horizontal Coordinates, starting at 0
+     * @param y receives the vertical Coordinates, starting at 0
+     */
+    public void vertices(int level, long from, int count, double[] x, double[] y) {
+        if (count <= 0) {
+            return;
+        }
+        checkIndex(level, from);
+        checkIndex(level, from + count - 1);
+        double[] stack = new double[4 * (level + 1)];
+        long index = from;
+        int depth = 0;
+        for (int n = 0; n < count; n++, index++) {
+            if (n > 0) {
+                int unchangedDigits = Math.min(Long.numberOfTrailingZeros(index) / 2, level);
+                depth = level - unchangedDigits;
+            }
+            descend(level, index, stack, depth);
+            x[n] = stack[4 * level];
+            y[n] = stack[4 * level + 1];
+        }
+    }
+
+    /**
+     * Recomputes the Segments of the Stack from depth down to level.
+     * The Segment for depth is at offset 4 * depth, depth 0 is the Edge of the Seed Triangle.
+     */
+    private void descend(int level, long index, double[] stack, int depth) {
+        if (depth == 0) {
+            loadSeedEdge(level, index, stack, 0);
+            depth = 1;
+        }
+        for (; depth <= level; depth++) {
+            int digit = (int) (index >>> (2 * (level - depth))) & 3;
+            KochSubdivision.childSegment(digit, stack, 4 * (depth - 1), 4 * depth);
+        }
+    }
+
+    private void loadSeedEdge(int level, long index, double[] segments, int offset) {
+        int edge = (int) (index >>> (2 * level));
+        int next = seed.next(edge);
+        segments[offset] = seed.getX(edge);
+        segments[offset + 1] = seed.getY(edge);
+        segments[offset + 2] = seed.getX(next);
+        segments[offset + 3] = seed.getY(next);
+    }
+
+    private void checkIndex(int level, long index) {
+        if (level < 0 || level > MAX_LEVEL) {
+            throw new IllegalArgumentException("level out of range: " + level);
+        }
+        if (index < 0 || index >= vertexCount(level)) {
+            throw new IndexOutOfBoundsException("index " + index + " at level " + level);
+        }
+    }
+}
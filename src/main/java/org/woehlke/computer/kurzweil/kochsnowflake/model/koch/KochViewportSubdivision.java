@@ -0,0 +1,125 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeSegmentArray;
+
+/**
+ * Computes only the Segments of a Level which can be seen in a Viewport.
+ *
+ * The Koch Curve on a Segment a to b stays inside the Triangle with the Base a b
+ * and the Apex at Height |ab| * sqrt(3) / 6 over the Middle, on the Side of the Bump.
+ * The Recursion starts at the Edges of the Seed Triangle and drops every Subtree
+ * whose Bounding Triangle misses the Viewport, so Memory and Time grow with the visible Segments and not with 4^n.
+ * The Triangle is tested by its Bounding Box, which keeps a few Subtrees too many but never drops a visible one.
+ *
+ * The Coordinates are those of the Koch Rule without Rounding, like in KochVertexLookup.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochSubdivision
+ * @see KochVertexLookup
+ * @see LatticeSegmentArray
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+public class KochViewportSubdivision {
+
+    /**
+     * Height of the Bounding Triangle relative to the Length of its Base: tan(30 degrees) / 2.
+     * Also holds for the Rotation of LatticePoint, which is a bit less than 60 degrees.
+     */
+    public static final double APEX_HEIGHT = Math.sqrt(3.0d) / 6.0d;
+
+    /**
+     * Pixels added around the Viewport for the Width of the drawn Lines.
+     */
+    private static final double MARGIN = 1.0d;
+
+    private final LatticePointArray seed;
+
+    public KochViewportSubdivision(LatticePointArray seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Receives the Segments found by visit, in World Coordinates without Rounding.
+     */
+    @FunctionalInterface
+    public interface SegmentConsumer {
+
+        void accept(long index, double ax, double ay, double bx, double by);
+    }
+
+    /**
+     * @param level the Level, 0 .. KochVertexLookup.MAX_LEVEL
+     * @param viewport the visible Part of the World
+     * @return the Segments of the Level which may intersect the Viewport, in the Order of the Polygon, with their Index in the Level
+     */
+    public LatticeSegmentArray visibleSegments(int level, LatticeRectangle viewport) {
+        LatticeSegmentArray visible = new LatticeSegmentArray();
+        visit(
+            level,
+            viewport.getStart().getX() - MARGIN,
+            viewport.getStart().getY() - MARGIN,
+            viewport.getStart().getX() + viewport.getDimension().getWidth() + MARGIN,
+            viewport.getStart().getY() + viewport.getDimension().getHeight() + MARGIN,
+            (index, ax, ay, bx, by) -> visible.add(
+                index, (int) Math.round(ax), (int) Math.round(ay), (int) Math.round(bx), (int) Math.round(by)
+            )
+        );
+        return visible;
+    }
+
+    /**
+     * Like visibleSegments, for Rectangles smaller than a Pixel of the World, as in deep Zoom.
+     *
+     * @param level the Level, 0 .. KochVertexLookup.MAX_LEVEL
+     * @param minX left Border of the Rectangle
+     * @param minY upper Border of the Rectangle
+     * @param maxX right Border of the Rectangle
+     * @param maxY lower Border of the Rectangle
+     * @param consumer gets the Segments which may intersect the Rectangle, in the Order of the Polygon
+     */
+    public void visit(int level, double minX, double minY, double maxX, double maxY, SegmentConsumer consumer) {
+        if (level < 0 || level > KochVertexLookup.MAX_LEVEL) {
+            throw new IllegalArgumentException("level out of range: " + level);
+        }
+        double[] stack = new double[4 * (level + 1)];
+        for (int edge = 0; edge < seed.getSize(); edge++) {
+            int next = seed.next(edge);
+            stack[0] = seed.getX(edge);
+            stack[1] = seed.getY(edge);
+            stack[2] = seed.getX(next);
+            stack[3] = seed.getY(next);
+            descend(level, 0, edge, stack, minX, minY, maxX, maxY, consumer);
+        }
+    }
+
+    private void descend(
+        int level, int depth, long index, double[] stack, double minX, double minY, double maxX, double maxY, SegmentConsumer consumer
+    ) {
+        int offset = 4 * depth;
+        double ax = stack[offset];
+        double ay = stack[offset + 1];
+        double bx = stack[offset + 2];
+        double by = stack[offset + 3];
+        double apexX = (ax + bx) * 0.5d - (by - ay) * APEX_HEIGHT;
+        double apexY = (ay + by) * 0.5d + (bx - ax) * APEX_HEIGHT;
+        if (Math.max(Math.max(ax, bx), apexX) < minX || Math.min(Math.min(ax, bx), apexX) > maxX
+            || Math.max(Math.max(ay, by), apexY) < minY || Math.min(Math.min(ay, by), apexY) > maxY) {
+            return;
+        }
+        if (depth == level) {
+            consumer.accept(index, ax, ay, bx, by);
+            return;
+        }
+        for (int digit = 0; digit < 4; digit++) {
+            KochSubdivision.childSegment(digit, stack, offset, offset + 4);
+            descend(level, depth + 1, 4 * index + digit, stack, minX, minY, maxX, maxY, consumer);
+        }
+    }
+}
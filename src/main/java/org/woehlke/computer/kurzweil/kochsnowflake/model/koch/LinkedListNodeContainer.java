@@ -1,25 +1,46 @@
 package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
 
 import lombok.Getter;
+import lombok.Setter;
 import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
 import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
 import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePoint;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeSegmentArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.lsystem.LSystem;
 import org.woehlke.computer.kurzweil.kochsnowflake.view.KochSnowflakeFrame;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
+ * Holds the current Level as immutable KochLevel Snapshot. start and step build a new Snapshot
+ * and publish it with one atomic Swap; Readers like paint take the Snapshot without Locks and never block a Step.
+ * Steps are serialized among themselves.
+ *
+ * Despite its Name it no longer holds a linked List of Nodes: the Vertices of a Level are kept in the flat int Arrays
+ * of a LatticePointArray. The Name is kept, because the Model, the View and the Benchmarks refer to it.
+ *
  * Koch Snowflake. A Fractal with self self-similarity.
  * (C) 2006 - 2022 Thomas Woehlke
  * @author Thomas Woehlke
  *
+ * @see KochLevel
  * @see ComputerKurzweilProperties
  * @see KochSnowflakeFrame
  * @see LatticeDimension
  *
- * @see LinkedListNode
+ * @see LatticePointArray
+ * @see KochSubdivision
+ * @see KochSubdivisionTask
+ * @see KochVertexLookup
+ * @see KochViewportSubdivision
+ * @see KochAdaptiveSubdivision
+ * @see KochSegmentTree
+ * @see EisensteinSubdivision
+ * @see LSystem
  *
  * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
  * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
@@ -33,16 +54,86 @@ public class LinkedListNodeContainer implements Serializable {
 
     private final LatticeDimension worldDimensions;
 
-    private List<LinkedListNode> startNode = new ArrayList<>();
+    /**
+     * The current Level, replaced as a whole by start and step.
+     */
+    private final AtomicReference<KochLevel> snapshot = new AtomicReference<>(KochLevel.EMPTY);
+
+    /**
+     * Random Access to the Vertices of any Level, starting from the same Seed Triangle.
+     */
+    private volatile KochVertexLookup vertexLookup;
+
+    /**
+     * Computes the Segments of the current Level inside a Viewport, without the Segments outside.
+     */
+    private volatile KochViewportSubdivision viewportSubdivision;
+
+    /**
+     * Level of Detail: refine Segments only while they are longer than pixelTolerance on Screen.
+     */
+    @Setter
+    private boolean levelOfDetail = false;
+
+    @Setter
+    private double pixelTolerance = 1.0d;
+
+    /**
+     * Scale from World Coordinates to Pixels of the Output, for levelOfDetail. Used by the next Step.
+     */
+    @Setter
+    private volatile double pixelsPerUnit = 1.0d;
+
+    private volatile KochAdaptiveSubdivision adaptiveSubdivision;
+
+    /**
+     * Levels with more Segments are subdivided in parallel, in Tasks of this many Segments.
+     */
+    @Setter
+    private int parallelismThreshold = KochSubdivisionTask.DEFAULT_THRESHOLD;
+
+    /**
+     * Subdivides the Segments of the built-in Koch Rule, scalar or with the Vector API.
+     */
+    @Setter
+    private KochSubdivisionKernel kernel = KochSubdivisionKernel.SCALAR;
+
+    /**
+     * Build the KochSegmentTree of each Level in the computing Thread before the Level is published,
+     * so picking with the Mouse never builds it on the Event Dispatch Thread. Headless Renderers do not need it.
+     */
+    @Setter
+    private boolean segmentTreeWithLevel = false;
+
+    /**
+     * Compute exactly on the Lattice of Eisenstein Integers instead of rounding to Pixels at every Level.
+     */
+    @Setter
+    private boolean exactGeometry = false;
 
-    private LinkedListNode currentNode;
+    /**
+     * If set, replaces the built-in Koch Rule. Each Level is expanded from the Axiom, starting at the Seed Origin.
+     */
+    @Setter
+    private LSystem lsystem;
+
+    private volatile LatticePoint seedOrigin;
+
+    private volatile int seedSide;
 
     public LinkedListNodeContainer(KochSnowflakeFrame tab, LatticeDimension worldDimensions){
         this.tab = tab;
         this.worldDimensions = worldDimensions;
     }
 
-    public void start(){
+    /**
+     * Without a Frame, for headless Rendering.
+     */
+    public LinkedListNodeContainer(LatticeDimension worldDimensions){
+        this(null, worldDimensions);
+    }
+
+    public synchronized void start(){
         int marginY = 30;
         int padding = 10;
         int squareSide = this.worldDimensions.getHeight();
@@ -61,38 +152,206 @@ public class LinkedListNodeContainer implements Serializable {
         LatticePoint leftBottom = new LatticePoint(x1,y1);
         LatticePoint rightBottom = new LatticePoint(x2,y2);
         LatticePoint upperCenter = new LatticePoint(x3,y3);
-        LinkedListNode leftBottomNode = new LinkedListNode(leftBottom);
-        LinkedListNode rightBottomNode = new LinkedListNode(rightBottom);
-        LinkedListNode upperCenterNode = new LinkedListNode(upperCenter);
-        leftBottomNode.setNext(rightBottomNode);
-        rightBottomNode.setNext(upperCenterNode);
-        upperCenterNode.setNext(leftBottomNode);
-        this.startNode.add(leftBottomNode);
-        this.startNode.add(rightBottomNode);
-        this.startNode.add(upperCenterNode);
-    }
-
-    public void step() {
-        List<LinkedListNode> nextStep = new ArrayList<>();
-        for(LinkedListNode o : startNode){
-            LinkedListNode nextHelper = o.getNext();
-            LatticePoint[] newPoints =  o.getPoint().getNewPoints(o.getNext().getPoint());;
-            LinkedListNode node1 = new LinkedListNode(newPoints[1]);
-            LinkedListNode node2 = new LinkedListNode(newPoints[2]);
-            LinkedListNode node3 = new LinkedListNode(newPoints[3]);
-            LinkedListNode node4 = new LinkedListNode(newPoints[4]);
-            o.setNext(node1);
-            node1.setNext(node2);
-            node2.setNext(node3);
-            node3.setNext(node4);
-            node4.setNext(nextHelper);
-            nextStep.add(o);
-            nextStep.add(node1);
-            nextStep.add(node2);
-            nextStep.add(node3);
-            nextStep.add(node4);
-            currentNode = nextHelper;
+        LatticePointArray seed = LatticePointArray.of(leftBottom, rightBottom, upperCenter);
+        this.vertexLookup = new KochVertexLookup(seed);
+        this.viewportSubdivision = new KochViewportSubdivision(seed);
+        this.adaptiveSubdivision = new KochAdaptiveSubdivision(seed);
+        this.seedOrigin = leftBottom;
+        this.seedSide = triangleSide;
+        KochLevel first;
+        if (this.lsystem != null) {
+            first = new KochLevel(0, this.lsystem.toLatticePointArray(0, this.seedOrigin, this.seedSide));
+        } else if (this.exactGeometry) {
+            first = new KochLevel(0, EisensteinSubdivision.seed(), this.seedOrigin, this.seedSide);
+        } else {
+            first = new KochLevel(0, seed);
+        }
+        this.snapshot.set(prepare(first));
+    }
+
+    /**
+     * @param viewport the Part of the World shown
+     * @param width Width of the Output in Pixels
+     * @param height Height of the Output in Pixels
+     * @return Pixels per World Unit, the larger of both Directions, so no Segment is longer on the Output than computed
+     */
+    public static double pixelsPerUnit(LatticeRectangle viewport, int width, int height) {
+        return Math.max(
+            ((double) width) / viewport.getDimension().getWidth(),
+            ((double) height) / viewport.getDimension().getHeight()
+        );
+    }
+
+    public synchronized void step() {
+        this.snapshot.set(computeNext(this.snapshot.get()));
+    }
+
+    private KochLevel computeNext(KochLevel current) {
+        int nextLevel = current.getLevel() + 1;
+        KochLevel next;
+        if (this.lsystem != null) {
+            next = new KochLevel(nextLevel, this.lsystem.toLatticePointArray(nextLevel, this.seedOrigin, this.seedSide));
+        } else if (current.getEisensteinVertices() != null) {
+            if (current.getLevel() == EisensteinSubdivision.MAX_LEVEL) {
+                throw new IllegalStateException("exactGeometry supports Levels up to " + EisensteinSubdivision.MAX_LEVEL);
+            }
+            next = new KochLevel(
+                nextLevel, EisensteinSubdivision.subdivide(current.getEisensteinVertices()), this.seedOrigin, this.seedSide
+            );
+        } else if (this.levelOfDetail) {
+            next = new KochLevel(nextLevel, this.adaptiveSubdivision.vertices(nextLevel, this.pixelTolerance, this.pixelsPerUnit));
+        } else {
+            next = new KochLevel(
+                nextLevel, KochSubdivisionTask.subdivide(current.getVertices(), this.parallelismThreshold, this.kernel)
+            );
+        }
+        return prepare(next);
+    }
+
+    /**
+     * Builds what is derived from the Level and needed by the Window, in the computing Thread.
+     */
+    private KochLevel prepare(KochLevel level) {
+        if (this.segmentTreeWithLevel) {
+            level.getSegmentTree();
+        }
+        return level;
+    }
+
+    /**
+     * Computes the Level after base without publishing it, e.g. in a Background Thread,
+     * which hands it to the Event Dispatch Thread to publish.
+     * The built-in Koch Rule is computed in Chunks, with Progress and Cancellation between the Chunks;
+     * L-Systems, exactGeometry and levelOfDetail compute the Level at once, without a Total for the Progress,
+     * and check for Cancellation before and after. The Time Budget of chunks starts here.
+     *
+     * @param base a Snapshot of this Container
+     * @param chunks receives the Chunks and the Progress, and is completed at the End
+     * @return the next Level
+     * @throws java.util.concurrent.CancellationException if chunks is cancelled or its Time Budget is spent
+     */
+    public KochLevel computeNext(KochLevel base, KochLevelChunks chunks) {
+        chunks.begin();
+        chunks.checkCancelled();
+        if (this.lsystem != null || base.getEisensteinVertices() != null || this.levelOfDetail) {
+            chunks.start(0L);
+            KochLevel next = computeNext(base);
+            chunks.checkCancelled();
+            chunks.complete();
+            return next;
+        }
+        LatticePointArray current = base.getVertices();
+        int size = current.getSize();
+        chunks.start(4L * size);
+        LatticePointArray nextLevel = new LatticePointArray(4 * size);
+        for (int from = 0; from < size; from += KochLevelChunks.CHUNK) {
+            int to = Math.min(size, from + KochLevelChunks.CHUNK);
+            if (to - from <= this.parallelismThreshold) {
+                this.kernel.subdivide(current, nextLevel, from, to);
+            } else {
+                ForkJoinPool.commonPool().invoke(
+                    new KochSubdivisionTask(current, nextLevel, from, to, this.parallelismThreshold, this.kernel)
+                );
+            }
+            LatticeSegmentArray chunk = null;
+            if (chunks.isDrawSegments()) {
+                chunk = new LatticeSegmentArray(4 * (to - from));
+                int last = 4 * to - 1;
+                for (int i = 4 * from; i < last; i++) {
+                    chunk.add(i, nextLevel.getX(i), nextLevel.getY(i), nextLevel.getX(i + 1), nextLevel.getY(i + 1));
+                }
+                int end = current.next(to - 1);
+                chunk.add(last, nextLevel.getX(last), nextLevel.getY(last), current.getX(end), current.getY(end));
+            }
+            chunks.publish(4L * to, chunk);
+            chunks.checkCancelled();
+        }
+        KochLevel next = prepare(new KochLevel(base.getLevel() + 1, nextLevel));
+        chunks.complete();
+        return next;
+    }
+
+    /**
+     * Publishes a Level computed by computeNext, unless the Container has moved on from base in the Meantime.
+     *
+     * @param base the Snapshot the Level was computed from
+     * @param next the computed Level
+     * @return false if the current Level is not base any more, then next is dropped
+     */
+    public synchronized boolean publish(KochLevel base, KochLevel next) {
+        return this.snapshot.compareAndSet(base, next);
+    }
+
+    /**
+     * @return the current Level. Readers which need more than one Property of the Level take it once from here.
+     */
+    public KochLevel getSnapshot() {
+        return this.snapshot.get();
+    }
+
+    public int getLevel() {
+        return this.snapshot.get().getLevel();
+    }
+
+    /**
+     * @return the Vertices of the current Level in Pixel Coordinates.
+     * With exactGeometry they are projected from the Eisenstein Coordinates at the first Call after a Step.
+     */
+    public LatticePointArray getVertices() {
+        return this.snapshot.get().getVertices();
+    }
+
+    /**
+     * @return the current Level in Eisenstein Coordinates, only with exactGeometry, else null.
+     */
+    public LatticePointArray getEisensteinVertices() {
+        return this.snapshot.get().getEisensteinVertices();
+    }
+
+    /**
+     * @return the Bounding Volume Hierarchy of the current Vertices, built at the first Query after a Step.
+     */
+    public KochSegmentTree getSegmentTree() {
+        return this.snapshot.get().getSegmentTree();
+    }
+
+    /**
+     * For zoomed Views: only the Segments of the current Level which may intersect the Viewport.
+     * The built-in Koch Rule subdivides only the visible Subtrees from the Seed Triangle;
+     * L-Systems and exactGeometry filter the Segments of the current Level.
+     *
+     * @param viewport the visible Part of the World
+     * @return the visible Segments with their Index in the Level
+     */
+    public LatticeSegmentArray getVisibleSegments(LatticeRectangle viewport) {
+        return getVisibleSegments(this.snapshot.get(), viewport);
+    }
+
+    /**
+     * @param level a Snapshot of this Container
+     * @param viewport the visible Part of the World
+     * @return the visible Segments of the Snapshot with their Index in the Level
+     */
+    public LatticeSegmentArray getVisibleSegments(KochLevel level, LatticeRectangle viewport) {
+        if (this.lsystem == null && level.getEisensteinVertices() == null && !this.levelOfDetail) {
+            return this.viewportSubdivision.visibleSegments(level.getLevel(), viewport);
+        }
+        LatticePointArray all = level.getVertices();
+        int minX = viewport.getStart().getX();
+        int minY = viewport.getStart().getY();
+        int maxX = minX + viewport.getDimension().getWidth();
+        int maxY = minY + viewport.getDimension().getHeight();
+        LatticeSegmentArray visible = new LatticeSegmentArray();
+        for (int i = 0; i < all.getSize(); i++) {
+            int j = all.next(i);
+            int x1 = all.getX(i);
+            int y1 = all.getY(i);
+            int x2 = all.getX(j);
+            int y2 = all.getY(j);
+            if (Math.max(x1, x2) >= minX && Math.min(x1, x2) <= maxX && Math.max(y1, y2) >= minY && Math.min(y1, y2) <= maxY) {
+                visible.add(i, x1, y1, x2, y2);
+            }
         }
-        startNode = nextStep;
+        return visible;
     }
 }
@@ -0,0 +1,120 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.MappedLatticePointArray;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Computes the Levels like LinkedListNodeContainer, but keeps the Vertices in memory mapped Files
+ * in a Scratch Directory, for Levels beyond 2^31 Segments and larger than the Heap.
+ *
+ * Level n+1 is written straight from Level n in Chunks: a Chunk of Segments is copied into a Window on Heap,
+ * subdivided by KochSubdivisionTask with the configured Kernel and copied to the new File. Afterwards the File of Level n is closed.
+ * The Files are Scratch Files, deleted by the Operating System when they are closed and no longer mapped.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see MappedLatticePointArray
+ * @see KochSubdivisionTask
+ * @see KochSubdivisionKernel
+ * @see LinkedListNodeContainer
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Log4j2
+@Getter
+public class MappedKochLevels implements Closeable {
+
+    /**
+     * Segments per Chunk, the Window on Heap needs 40 Bytes per Segment.
+     */
+    private static final int CHUNK = 1 << 20;
+
+    private final Path scratchDirectory;
+
+    private final int parallelismThreshold;
+
+    private final KochSubdivisionKernel kernel;
+
+    private MappedLatticePointArray vertices;
+
+    private int level;
+
+    public MappedKochLevels(Path scratchDirectory, int parallelismThreshold) {
+        this(scratchDirectory, parallelismThreshold, KochSubdivisionKernel.SCALAR);
+    }
+
+    public MappedKochLevels(Path scratchDirectory, int parallelismThreshold, KochSubdivisionKernel kernel) {
+        this.scratchDirectory = scratchDirectory;
+        this.parallelismThreshold = parallelismThreshold;
+        this.kernel = kernel;
+    }
+
+    public void start(LatticePointArray seed) throws IOException {
+        close();
+        this.level = 0;
+        this.vertices = MappedLatticePointArray.createScratch(levelFile(0), seed.getSize());
+        this.vertices.put(0L, seed.getX(), seed.getY(), 0, seed.getSize());
+    }
+
+    public void step() throws IOException {
+        MappedLatticePointArray nextLevel = MappedLatticePointArray.createScratch(levelFile(level + 1), 4L * vertices.getSize());
+        try {
+            subdivide(this.vertices, nextLevel, this.parallelismThreshold, this.kernel);
+        } catch (RuntimeException e) {
+            nextLevel.close();
+            throw e;
+        }
+        close();
+        this.vertices = nextLevel;
+        this.level++;
+        log.info("step done, level: " + level + " vertices: " + vertices.getSize());
+    }
+
+    public static void subdivide(
+        MappedLatticePointArray level, MappedLatticePointArray nextLevel, int parallelismThreshold, KochSubdivisionKernel kernel
+    ) {
+        long size = level.getSize();
+        int chunk = (int) Math.min(CHUNK, size);
+        LatticePointArray window = new LatticePointArray(chunk + 1);
+        LatticePointArray windowNextLevel = new LatticePointArray(4 * chunk);
+        for (long from = 0; from < size; from += chunk) {
+            int length = (int) Math.min(chunk, size - from);
+            level.get(from, window.getX(), window.getY(), 0, length);
+            long last = level.next(from + length - 1);
+            window.set(length, level.getX(last), level.getY(last));
+            if (length <= parallelismThreshold) {
+                kernel.subdivide(window, windowNextLevel, 0, length);
+            } else {
+                ForkJoinPool.commonPool().invoke(
+                    new KochSubdivisionTask(window, windowNextLevel, 0, length, parallelismThreshold, kernel)
+                );
+            }
+            nextLevel.put(4L * from, windowNextLevel.getX(), windowNextLevel.getY(), 0, 4 * length);
+        }
+    }
+
+    private Path levelFile(int level) {
+        return scratchDirectory.resolve("koch-snowflake-level-" + level + ".vertices");
+    }
+
+    /**
+     * Closes the File of the current Level, which deletes it.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.vertices != null) {
+            this.vertices.close();
+            this.vertices = null;
+        }
+    }
+}
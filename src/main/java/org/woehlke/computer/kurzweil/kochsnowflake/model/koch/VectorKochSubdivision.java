@@ -0,0 +1,113 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePoint;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+
+/**
+ * The Koch Rule of KochSubdivision with the Vector API: each Lane subdivides one Segment,
+ * so a whole Level is processed in SIMD Chunks, the Rest and the closing Segment by the scalar Kernel.
+ * Computes exactly the same Points as KochSubdivision, the Arithmetic is done in double like there.
+ *
+ * Needs the incubating Module jdk.incubator.vector at Runtime: java --add-modules jdk.incubator.vector
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochSubdivision
+ * @see KochSubdivisionKernel
+ *
+ * @see <a href="https://openjdk.org/jeps/414">JEP 414: Vector API</a>
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+public class VectorKochSubdivision implements KochSubdivisionKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Same Number of Lanes as DOUBLES.
+     */
+    private final VectorSpecies<Integer> ints;
+
+    /**
+     * Scatter Offsets 0, 4, 8, ... for interleaving the four new Points of each Segment.
+     */
+    private final int[] scatter;
+
+    public VectorKochSubdivision() {
+        int lanes = DOUBLES.length();
+        if (lanes < 2) {
+            throw new UnsupportedOperationException("no SIMD Lanes for double");
+        }
+        this.ints = VectorSpecies.of(int.class, VectorShape.forBitSize(32 * lanes));
+        this.scatter = new int[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            this.scatter[lane] = 4 * lane;
+        }
+    }
+
+    @Override
+    public void subdivide(LatticePointArray level, LatticePointArray nextLevel, int from, int to) {
+        int[] x = level.getX();
+        int[] y = level.getY();
+        int[] nx = nextLevel.getX();
+        int[] ny = nextLevel.getY();
+        int lanes = DOUBLES.length();
+        int upper = Math.min(to, level.getSize() - 1);
+        int i = from;
+        for (; i + lanes <= upper; i += lanes) {
+            IntVector x0 = IntVector.fromArray(ints, x, i);
+            IntVector y0 = IntVector.fromArray(ints, y, i);
+            IntVector dx = IntVector.fromArray(ints, x, i + 1).sub(x0);
+            IntVector dy = IntVector.fromArray(ints, y, i + 1).sub(y0);
+            DoubleVector ddx = toDouble(dx);
+            DoubleVector ddy = toDouble(dy);
+            IntVector x1 = x0.add(round(ddx.mul(1.0d / 3.0d)));
+            IntVector y1 = y0.add(round(ddy.mul(1.0d / 3.0d)));
+            IntVector x3 = x0.add(round(ddx.mul(2.0d / 3.0d)));
+            IntVector y3 = y0.add(round(ddy.mul(2.0d / 3.0d)));
+            DoubleVector rx = toDouble(x3.sub(x1));
+            DoubleVector ry = toDouble(y3.sub(y1));
+            IntVector x2 = x1.add(truncate(rx.mul(LatticePoint.ROTATION_COS).sub(ry.mul(LatticePoint.ROTATION_SIN))));
+            IntVector y2 = y1.add(truncate(rx.mul(LatticePoint.ROTATION_SIN).add(ry.mul(LatticePoint.ROTATION_COS))));
+            int k = 4 * i;
+            x0.intoArray(nx, k, scatter, 0);
+            y0.intoArray(ny, k, scatter, 0);
+            x1.intoArray(nx, k + 1, scatter, 0);
+            y1.intoArray(ny, k + 1, scatter, 0);
+            x2.intoArray(nx, k + 2, scatter, 0);
+            y2.intoArray(ny, k + 2, scatter, 0);
+            x3.intoArray(nx, k + 3, scatter, 0);
+            y3.intoArray(ny, k + 3, scatter, 0);
+        }
+        KochSubdivision.subdivide(level, nextLevel, i, to);
+    }
+
+    private DoubleVector toDouble(IntVector v) {
+        return (DoubleVector) v.convertShape(VectorOperators.I2D, DOUBLES, 0);
+    }
+
+    /**
+     * Like (int) on each Lane: rounds towards zero.
+     */
+    private IntVector truncate(DoubleVector v) {
+        return (IntVector) v.convertShape(VectorOperators.D2I, ints, 0);
+    }
+
+    /**
+     * Like Math.round on each Lane: floor(v + 0.5).
+     */
+    private IntVector round(DoubleVector v) {
+        DoubleVector shifted = v.add(0.5d);
+        IntVector truncated = truncate(shifted);
+        VectorMask<Integer> below = shifted.lt(toDouble(truncated)).cast(ints);
+        return truncated.sub(1, below);
+    }
+}
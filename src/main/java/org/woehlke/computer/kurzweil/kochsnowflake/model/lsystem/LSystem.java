@@ -0,0 +1,274 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.lsystem;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePoint;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * An L-System compiled from its Definition in application.yml into primitive Tables.
+ *
+ * Every Character of Axiom and Rules gets an int Code. Upper Case Letters draw one Segment forward,
+ * + turns by angle, - turns by -angle, all other Characters are only rewritten.
+ * In the Axiom + and - turn by axiomAngle, if it is set, so e.g. a Square can carry Rules with another Angle.
+ * On Screen y is pointing down, so + turns clockwise. The Heading is an Index into a Sine and Cosine Table,
+ * a Turn adds a fixed Number of Steps modulo the Size of the Table.
+ *
+ * The Expansion is depth first with one Stack Frame per Level, which only points into the compiled Successor Tables,
+ * so expanding to any Depth allocates nothing but the Stack of depth+1 Frames. The Start of every Segment is emitted as Vertex,
+ * so the Axiom should be closed like the Seed Triangle of the Koch Snowflake.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see ComputerKurzweilProperties.Kochsnowflake.Lsystem
+ * @see LatticePointArray
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/L-system">L-system</a>
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Getter
+@ToString(of = {"name", "symbols", "angleSteps", "directions"})
+public class LSystem implements Serializable {
+
+    static final long serialVersionUID = 242L;
+
+    /**
+     * Resolution of the Angle: 1/1000 Degree.
+     */
+    private static final int FULL_CIRCLE = 360000;
+
+    private final String name;
+
+    private final char[] symbols;
+
+    private final int[] axiom;
+
+    /**
+     * Successor Codes for each Code. Codes without a Rule are their own Successor.
+     */
+    private final int[][] successors;
+
+    private final boolean[] draw;
+
+    /**
+     * Change of the Heading Index for each Code.
+     */
+    private final int[] turn;
+
+    /**
+     * Change of the Heading Index for each Code in the Axiom.
+     */
+    private final int[] axiomTurn;
+
+    /**
+     * Codes without a Rule, which are drawn or turn where they are, at any Depth.
+     */
+    private final boolean[] terminal;
+
+    private final int angleSteps;
+
+    private final int directions;
+
+    private final double[] cos;
+
+    private final double[] sin;
+
+    private final double lengthFactor;
+
+    public interface VertexConsumer {
+        void accept(double x, double y);
+    }
+
+    private LSystem(
+        String name, char[] symbols, int[] axiom, int[][] successors, boolean[] terminal,
+        boolean[] draw, int[] turn, int[] axiomTurn, int angleSteps, int directions, double lengthFactor
+    ) {
+        this.name = name;
+        this.symbols = symbols;
+        this.axiom = axiom;
+        this.successors = successors;
+        this.terminal = terminal;
+        this.draw = draw;
+        this.turn = turn;
+        this.axiomTurn = axiomTurn;
+        this.angleSteps = angleSteps;
+        this.directions = directions;
+        this.lengthFactor = lengthFactor;
+        this.cos = new double[directions];
+        this.sin = new double[directions];
+        for (int k = 0; k < directions; k++) {
+            double radians = 2.0d * Math.PI * k / directions;
+            this.cos[k] = Math.cos(radians);
+            this.sin[k] = Math.sin(radians);
+        }
+    }
+
+    public static LSystem compile(String name, ComputerKurzweilProperties.Kochsnowflake.Lsystem definition) {
+        StringBuilder alphabet = new StringBuilder();
+        collect(alphabet, definition.getAxiom());
+        for (Map.Entry<String, String> rule : definition.getRules().entrySet()) {
+            if (rule.getKey().length() != 1) {
+                throw new IllegalArgumentException("L-System " + name + ": Rule for more than one Character: " + rule.getKey());
+            }
+            collect(alphabet, rule.getKey());
+            collect(alphabet, rule.getValue());
+        }
+        char[] symbols = alphabet.toString().toCharArray();
+        int angleMilli = Math.floorMod((int) Math.round(definition.getAngle() * 1000.0d), FULL_CIRCLE);
+        double axiomAngle = definition.getAxiomAngle() == null ? definition.getAngle() : definition.getAxiomAngle();
+        int axiomAngleMilli = Math.floorMod((int) Math.round(axiomAngle * 1000.0d), FULL_CIRCLE);
+        int gcd = gcd(gcd(FULL_CIRCLE, angleMilli), axiomAngleMilli);
+        int directions = FULL_CIRCLE / gcd;
+        int angleSteps = angleMilli / gcd;
+        int axiomAngleSteps = axiomAngleMilli / gcd;
+        int[][] successors = new int[symbols.length][];
+        boolean[] terminal = new boolean[symbols.length];
+        boolean[] draw = new boolean[symbols.length];
+        int[] turn = new int[symbols.length];
+        int[] axiomTurn = new int[symbols.length];
+        for (int code = 0; code < symbols.length; code++) {
+            char symbol = symbols[code];
+            String successor = definition.getRules().get(String.valueOf(symbol));
+            successors[code] = successor == null ? new int[]{code} : encode(symbols, successor);
+            terminal[code] = successor == null;
+            draw[code] = Character.isUpperCase(symbol);
+            turn[code] = turn(symbol, angleSteps, directions);
+            axiomTurn[code] = turn(symbol, axiomAngleSteps, directions);
+        }
+        int[] axiom = encode(symbols, definition.getAxiom());
+        return new LSystem(
+            name, symbols, axiom, successors, terminal, draw, turn, axiomTurn, angleSteps, directions, definition.getLengthFactor()
+        );
+    }
+
+    private static int turn(char symbol, int angleSteps, int directions) {
+        return switch (symbol) {
+            case '+' -> angleSteps;
+            case '-' -> Math.floorMod(-angleSteps, directions);
+            default -> 0;
+        };
+    }
+
+    /**
+     * @param depth number of Rewritings of the Axiom
+     * @return number of Segments
+     * @throws ArithmeticException if the number does not fit into a long
+     */
+    public long segmentCount(int depth) {
+        long[] count = new long[symbols.length];
+        for (int code = 0; code < symbols.length; code++) {
+            count[code] = draw[code] ? 1L : 0L;
+        }
+        for (int d = 0; d < depth; d++) {
+            long[] next = new long[symbols.length];
+            for (int code = 0; code < symbols.length; code++) {
+                for (int successor : successors[code]) {
+                    next[code] = Math.addExact(next[code], count[successor]);
+                }
+            }
+            count = next;
+        }
+        long total = 0L;
+        for (int code : axiom) {
+            total = Math.addExact(total, count[code]);
+        }
+        return total;
+    }
+
+    /**
+     * Walks the Turtle over the Axiom rewritten depth Times and emits the Start of every Segment.
+     *
+     * @param depth number of Rewritings of the Axiom
+     * @param startX Start of the Turtle
+     * @param startY Start of the Turtle
+     * @param length Length of a Segment of the Axiom, each Rewriting multiplies it by lengthFactor
+     * @param consumer receives the Vertices
+     */
+    public void expand(int depth, double startX, double startY, double length, VertexConsumer consumer) {
+        double step = length * Math.pow(lengthFactor, depth);
+        int[][] sequence = new int[depth + 1][];
+        int[] position = new int[depth + 1];
+        sequence[0] = axiom;
+        position[0] = 0;
+        int d = 0;
+        int heading = 0;
+        double x = startX;
+        double y = startY;
+        while (d >= 0) {
+            if (position[d] == sequence[d].length) {
+                d--;
+                continue;
+            }
+            int code = sequence[d][position[d]++];
+            if (d < depth && !terminal[code]) {
+                d++;
+                sequence[d] = successors[code];
+                position[d] = 0;
+            } else if (draw[code]) {
+                consumer.accept(x, y);
+                x += step * cos[heading];
+                y += step * sin[heading];
+            } else {
+                heading += d == 0 ? axiomTurn[code] : turn[code];
+                if (heading >= directions) {
+                    heading -= directions;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param depth number of Rewritings of the Axiom
+     * @param start Start of the Turtle
+     * @param length Length of a Segment of the Axiom
+     * @return the Vertices rounded to LatticePoints as closed Polygon
+     */
+    public LatticePointArray toLatticePointArray(int depth, LatticePoint start, double length) {
+        long count = segmentCount(depth);
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("L-System " + name + " has too many Segments at depth " + depth + ": " + count);
+        }
+        LatticePointArray result = new LatticePointArray((int) count);
+        int[] x = result.getX();
+        int[] y = result.getY();
+        int[] i = new int[1];
+        expand(depth, start.getX(), start.getY(), length, (vx, vy) -> {
+            x[i[0]] = (int) Math.round(vx);
+            y[i[0]] = (int) Math.round(vy);
+            i[0]++;
+        });
+        return result;
+    }
+
+    private static void collect(StringBuilder alphabet, String text) {
+        for (char symbol : text.toCharArray()) {
+            if (alphabet.indexOf(String.valueOf(symbol)) < 0) {
+                alphabet.append(symbol);
+            }
+        }
+    }
+
+    private static int[] encode(char[] symbols, String text) {
+        int[] codes = new int[text.length()];
+        for (int i = 0; i < text.length(); i++) {
+            char symbol = text.charAt(i);
+            int code = 0;
+            while (symbols[code] != symbol) {
+                code++;
+            }
+            codes[i] = code;
+        }
+        return codes;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
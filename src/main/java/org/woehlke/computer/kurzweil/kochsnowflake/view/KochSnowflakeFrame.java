@@ -1,7 +1,9 @@
 package org.woehlke.computer.kurzweil.kochsnowflake.view;
 
 import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
 import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
+import org.woehlke.computer.kurzweil.kochsnowflake.control.BackgroundStepper;
 import org.woehlke.computer.kurzweil.kochsnowflake.control.ControllerThread;
 import org.woehlke.computer.kurzweil.kochsnowflake.model.KochSnowflakeModel;
 import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePoint;
@@ -24,6 +26,7 @@ import java.io.Serializable;
  * @author Thomas Woehlke
  *
  * @see ControllerThread
+ * @see BackgroundStepper
  * @see KochSnowflakeCanvas
  * @see KochSnowflakeModel
  * @see PanelSubtitle
@@ -33,6 +36,7 @@ import java.io.Serializable;
  * @see ImageObserver
  * @see WindowListener
  * @see MouseListener
+ * @see KeyListener
  *
  * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
  * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
@@ -40,13 +44,16 @@ import java.io.Serializable;
  * Date: 04.02.2006
  * Time: 18:47:46
  */
+@Log4j2
 @Getter
 public class KochSnowflakeFrame extends JFrame implements ImageObserver,
         MenuContainer,
         Serializable,
         Accessible,
         WindowListener,
-        MouseListener {
+        MouseListener,
+        KeyListener,
+        BackgroundStepper.StepListener {
 
     @Serial
     private final static long serialVersionUID = 242L;
@@ -55,6 +62,7 @@ public class KochSnowflakeFrame extends JFrame implements ImageObserver,
     private final PanelCopyright panelCopyright;
 
     private volatile ControllerThread controller;
+    private volatile BackgroundStepper stepper;
     private volatile KochSnowflakeCanvas canvas;
     private volatile KochSnowflakeModel model;
     private volatile LatticeRectangle rectangleBounds;
@@ -66,6 +74,13 @@ public class KochSnowflakeFrame extends JFrame implements ImageObserver,
         this.model = new KochSnowflakeModel(this);
         this.canvas = new KochSnowflakeCanvas(this);
         this.controller = new ControllerThread( this);
+        this.stepper = new BackgroundStepper(
+            this.model,
+            this,
+            this.controller::requestRepaint,
+            config.getKochsnowflake().getControl().getStepTimeBudget(),
+            config.getKochsnowflake().getControl().getProgressive()
+        );
         this.panelSubtitle = new PanelSubtitle(config.getKochsnowflake().getView().getSubtitle());
         this.panelCopyright = new PanelCopyright(config.getKochsnowflake().getView().getCopyright());
         BoxLayout layout = new BoxLayout(rootPane, BoxLayout.PAGE_AXIS);
@@ -74,6 +89,7 @@ public class KochSnowflakeFrame extends JFrame implements ImageObserver,
         rootPane.add(canvas);
         rootPane.add(panelCopyright);
         this.addWindowListener(this);
+        this.addKeyListener(this);
         this.canvas.addMouseListener(   this);
         this.showMeInit();
         this.setModeSwitch();
@@ -84,6 +100,8 @@ public class KochSnowflakeFrame extends JFrame implements ImageObserver,
     }
 
     public void windowClosing(WindowEvent e) {
+        this.stepper.shutdown();
+        this.controller.exit();
         System.exit(0);
     }
 
@@ -91,9 +109,12 @@ public class KochSnowflakeFrame extends JFrame implements ImageObserver,
         System.exit(0);
     }
 
-    public void windowIconified(WindowEvent e) {}
+    public void windowIconified(WindowEvent e) {
+        this.controller.setIconified(true);
+    }
 
     public void windowDeiconified(WindowEvent e) {
+        this.controller.setIconified(false);
         showMe();
     }
 
@@ -104,14 +125,72 @@ public class KochSnowflakeFrame extends JFrame implements ImageObserver,
     public void windowDeactivated(WindowEvent e) {}
 
 
+    /**
+     * Distance in Pixels within which a Click picks a Segment.
+     */
+    private static final double PICK_RADIUS = 4.0d;
+
+    /**
+     * A Click computes the next Level, as it always did. A Click with Shift selects the Segment under the Cursor,
+     * or computes the next Level too if no Segment is near.
+     * The Segment Tree for picking is built with the Level in the computing Thread, so picking is a Query only.
+     */
     @Override
     public void mouseClicked(MouseEvent e) {
-        this.model.step();
-        this.canvas.repaint();
+        int picked = e.isShiftDown() ? this.model.pickSegment(e.getX(), e.getY(), PICK_RADIUS) : -1;
+        if (picked >= 0) {
+            log.info("picked Segment " + picked + " of Level " + this.model.getSelectedLevel().getLevel());
+            this.panelSubtitle.setStatus("Segment " + picked + " of Level " + this.model.getSelectedLevel().getLevel());
+            this.canvas.repaint();
+        } else {
+            this.stepper.requestStep();
+        }
         this.repaint();
         showMe();
     }
 
+    /**
+     * Space pauses and resumes the Animation, the Right Arrow Key does a single Step,
+     * Escape cancels the clicked Step in the Background.
+     */
+    @Override
+    public void keyPressed(KeyEvent e) {
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_SPACE -> this.controller.togglePause();
+            case KeyEvent.VK_RIGHT -> this.controller.singleStep();
+            case KeyEvent.VK_ESCAPE -> this.stepper.cancel();
+            default -> { }
+        }
+    }
+
+    @Override
+    public void progress(int level, long done, long total) {
+        if (total == 0) {
+            this.panelSubtitle.setStatus("Level " + level + " ...");
+        } else {
+            this.panelSubtitle.setStatus(String.format(
+                "Level %d: %d%% (%d of %d Segments)", level, (100L * done) / total, done, total
+            ));
+        }
+    }
+
+    @Override
+    public void finished(int level, long millis) {
+        this.panelSubtitle.setStatus("Level " + level + " done in " + millis + " ms");
+    }
+
+    @Override
+    public void cancelled(int level, String reason) {
+        log.info(reason);
+        this.panelSubtitle.setStatus(reason);
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {}
+
+    @Override
+    public void keyReleased(KeyEvent e) {}
+
     @Override
     public void mousePressed(MouseEvent e) {}
 
@@ -1,13 +1,19 @@
 package org.woehlke.computer.kurzweil.kochsnowflake.view.canvas;
 
+import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
 import org.woehlke.computer.kurzweil.kochsnowflake.model.KochSnowflakeModel;
-import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNode;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeSegmentArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochLevel;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochLevelChunks;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
 import org.woehlke.computer.kurzweil.kochsnowflake.view.KochSnowflakeFrame;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.Serial;
-import java.util.List;
 
 
 /**
@@ -16,6 +22,9 @@ import java.util.List;
  * @author Thomas Woehlke
  *
  * @see KochSnowflakeModel
+ * @see KochSnowflakeRenderer
+ * @see KochSnowflakeRasterizer
+ * @see RasterCache
  * @see Dimension
  *
  * @see JComponent
@@ -35,8 +44,47 @@ public class KochSnowflakeCanvas extends JComponent  {
     private volatile KochSnowflakeModel model;
     private volatile Dimension preferredSize;
 
+    private final KochSnowflakeRenderer renderer;
+    private final RasterCache rasterCache;
+
+    /**
+     * If set, Levels are drawn in parallel by the software Rasterizer instead of the Renderer.
+     */
+    private final KochSnowflakeRasterizer rasterizer;
+
+    /**
+     * The Image of the Model Generation backBufferGeneration, repaints only blit it.
+     * It shows backBufferLevel in backBufferViewport, a new Generation which only changes the Selection keeps it.
+     * Painting happens on the Event Dispatch Thread only.
+     */
+    private BufferedImage backBuffer;
+    private long backBufferGeneration;
+    private KochLevel backBufferLevel;
+    private LatticeRectangle backBufferViewport;
+
+    /**
+     * While a Level is computed progressively: a Copy of the Back Buffer with the Chunks drawn so far.
+     */
+    private BufferedImage progressBuffer;
+    private KochLevelChunks progressChunks;
+
     public KochSnowflakeCanvas(KochSnowflakeFrame tab) {
-        this.model = tab.getModel();
+        this(tab.getModel(), tab.getConfig());
+    }
+
+    /**
+     * Without a Frame, e.g. to paint into an offscreen Graphics2D in a Benchmark.
+     *
+     * @param model the Model to paint
+     * @param config the Configuration
+     */
+    public KochSnowflakeCanvas(KochSnowflakeModel model, ComputerKurzweilProperties config) {
+        this.model = model;
+        this.renderer = new KochSnowflakeRenderer();
+        long rasterCacheBytes = 1024L * 1024L * config.getKochsnowflake().getView().getRasterCacheMegabytes();
+        this.rasterCache = new RasterCache(rasterCacheBytes);
+        boolean softwareRasterizer = config.getKochsnowflake().getView().getSoftwareRasterizer();
+        this.rasterizer = softwareRasterizer ? new KochSnowflakeRasterizer() : null;
         int width = this.model.getWorldDimensions().getWidth();
         int height = this.model.getWorldDimensions().getHeight();
         this.preferredSize = new Dimension(width, height);
@@ -52,38 +100,116 @@ public class KochSnowflakeCanvas extends JComponent  {
         super.paintComponent(g);
         //super.setBackground(Color.DARK_GRAY);
         super.setBackground(Color.BLACK);
-        int paddingX = (this.model.getWorldDimensions().getWidth()-this.model.getWorldDimensions().getHeight())/2;
-        //g.setColor(Color.DARK_GRAY);
-        g.setColor(Color.BLACK);
-        g.fillRect(
-            0,0,
+        long generation = this.model.getGeneration();
+        BufferedImage image = this.backBuffer;
+        if (image == null || generation != this.backBufferGeneration) {
+            KochLevel level = this.model.getLinkedListNodeContainer().getSnapshot();
+            LatticeRectangle viewport = this.model.getViewport();
+            if (image == null || level != this.backBufferLevel || !viewport.equals(this.backBufferViewport)) {
+                image = renderLevel(level, viewport);
+                this.backBuffer = image;
+                this.backBufferLevel = level;
+                this.backBufferViewport = viewport;
+            }
+            this.backBufferGeneration = generation;
+        }
+        KochLevelChunks chunks = this.model.getProgress();
+        if (chunks != null && this.model.getLinkedListNodeContainer().getLevel() < chunks.getLevel()) {
+            image = drawProgress(chunks, image);
+        } else {
+            this.progressBuffer = null;
+            this.progressChunks = null;
+        }
+        g.drawImage(image, 0, 0, null);
+        drawSelection(g);
+    }
+
+    /**
+     * Highlights the Segment picked with the Mouse, if it was picked in the Level shown.
+     */
+    private void drawSelection(Graphics g) {
+        KochLevel level = this.model.getSelectedLevel();
+        int segment = this.model.getSelectedSegment();
+        if (level == null || segment < 0 || level != this.backBufferLevel) {
+            return;
+        }
+        LatticePointArray vertices = level.getVertices();
+        if (segment >= vertices.getSize()) {
+            return;
+        }
+        int next = vertices.next(segment);
+        this.renderer.highlight(
+            (Graphics2D) g,
+            vertices.getX(segment), vertices.getY(segment), vertices.getX(next), vertices.getY(next),
+            this.backBufferViewport,
             this.model.getWorldDimensions().getWidth(),
             this.model.getWorldDimensions().getHeight()
         );
-        g.setColor(Color.BLACK);
-        g.fillRect(
-            paddingX,0,
-            this.model.getWorldDimensions().getHeight(),
-            this.model.getWorldDimensions().getHeight()
-        );
-        g.setColor(Color.RED);
-        List<LinkedListNode> startNode = model.getLinkedListNodeContainer().getStartNode();
-        int i=0;
-        for(LinkedListNode o : startNode) {
-            switch (i%4){
-                case 0: g.setColor(Color.RED); break;
-                case 1: g.setColor(Color.GREEN); break;
-                case 2: g.setColor(Color.BLUE); break;
-                case 3: g.setColor(Color.YELLOW); break;
+    }
+
+    /**
+     * Draws the Chunks which arrived since the last Paint on top of the Level before.
+     * The Back Buffer is copied first, because it may be shared with the RasterCache.
+     */
+    private BufferedImage drawProgress(KochLevelChunks chunks, BufferedImage levelBefore) {
+        int width = levelBefore.getWidth();
+        int height = levelBefore.getHeight();
+        if (this.progressChunks != chunks) {
+            this.progressBuffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            this.progressChunks = chunks;
+            Graphics2D copy = this.progressBuffer.createGraphics();
+            copy.drawImage(levelBefore, 0, 0, null);
+            copy.dispose();
+        }
+        Graphics2D g = this.progressBuffer.createGraphics();
+        try {
+            LatticeRectangle viewport = this.model.getViewport();
+            for (LatticeSegmentArray chunk = chunks.poll(); chunk != null; chunk = chunks.poll()) {
+                this.renderer.overlay(g, chunk, viewport, width, height);
             }
-            i++;
-            g.drawLine(
-                o.getPoint().getX(),
-                o.getPoint().getY(),
-                o.getNext().getPoint().getX(),
-                o.getNext().getPoint().getY()
-            );
+        } finally {
+            g.dispose();
         }
+        return this.progressBuffer;
+    }
+
+    /**
+     * Renders a Level into a new Image, or takes it from the RasterCache.
+     * The Level is taken once as Snapshot, so a Step in another Thread cannot tear the Image.
+     * The empty Level before the Start is not cached, it would hide Level 0 after the Start.
+     */
+    private BufferedImage renderLevel(KochLevel level, LatticeRectangle viewport) {
+        int width = this.model.getWorldDimensions().getWidth();
+        int height = this.model.getWorldDimensions().getHeight();
+        LinkedListNodeContainer container = model.getLinkedListNodeContainer();
+        boolean cached = level != KochLevel.EMPTY;
+        RasterCacheKey key = new RasterCacheKey(level.getLevel(), width, height, viewport);
+        BufferedImage image = cached ? this.rasterCache.get(key) : null;
+        if (image == null) {
+            boolean zoomed = !viewport.equals(LatticeRectangle.of(0, 0, width, height));
+            if (zoomed) {
+                LatticeSegmentArray segments = container.getVisibleSegments(level, viewport);
+                image = this.rasterizer != null
+                    ? this.rasterizer.render(segments, viewport, width, height)
+                    : this.renderer.render(segments, viewport, width, height);
+            } else {
+                LatticePointArray vertices = level.getVertices();
+                image = this.rasterizer != null
+                    ? this.rasterizer.render(vertices, viewport, width, height)
+                    : this.renderer.render(vertices, viewport, width, height);
+            }
+            if (cached) {
+                this.rasterCache.put(key, image);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Drops the Back Buffer, so the next Paint renders the Level again, e.g. in the KochSnowflakeCanvasBenchmark.
+     */
+    void invalidateBackBuffer() {
+        this.backBuffer = null;
     }
 
     public void update(Graphics g) {
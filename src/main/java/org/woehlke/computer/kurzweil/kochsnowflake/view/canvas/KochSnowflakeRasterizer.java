@@ -0,0 +1,325 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.canvas;
+
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeSegmentArray;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Software Rasterizer drawing a Level without Java2D, straight into the int[] of a BufferedImage.
+ *
+ * The Segments are first projected to Pixels and binned to the Tiles their Bounding Box touches.
+ * Then the Tiles are drawn in parallel with Bresenham Lines, each Tile only writes its own Pixels,
+ * so no Synchronization is needed. Within a Tile the Segments are drawn in the Order of their Index,
+ * so where Segments overlap the later one wins, like with drawLine.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochSnowflakeRenderer
+ * @see KochSnowflakeCanvas
+ * @see DataBufferInt
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+public class KochSnowflakeRasterizer {
+
+    /**
+     * Width and Height of a Tile in Pixels.
+     */
+    public static final int TILE = 64;
+
+    private static final int[] COLORS = {
+        Color.RED.getRGB(), Color.GREEN.getRGB(), Color.BLUE.getRGB(), Color.YELLOW.getRGB()
+    };
+
+    private static final int BACKGROUND = Color.BLACK.getRGB();
+
+
+    public BufferedImage render(LatticePointArray vertices, LatticeRectangle viewport, int width, int height) {
+        return render(vertices, viewport, new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+    }
+
+    public BufferedImage render(LatticeSegmentArray segments, LatticeRectangle viewport, int width, int height) {
+        return render(segments, viewport, new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+    }
+
+    /**
+     * Draws into an Image which is reused, e.g. for the Frames of an Animation.
+     *
+     * @param image a BufferedImage of TYPE_INT_RGB, all its Pixels are overwritten
+     * @return the image
+     */
+    public BufferedImage render(LatticePointArray vertices, LatticeRectangle viewport, BufferedImage image) {
+        int size = vertices.getSize();
+        Projected projected = new Projected(size, viewport, image.getWidth(), image.getHeight());
+        for (int i = 0; i < size; i++) {
+            int j = vertices.next(i);
+            projected.set(i, vertices.getX(i), vertices.getY(i), vertices.getX(j), vertices.getY(j), COLORS[i % 4]);
+        }
+        return rasterize(projected, image);
+    }
+
+    /**
+     * Draws into an Image which is reused, e.g. for the Frames of an Animation.
+     *
+     * @param image a BufferedImage of TYPE_INT_RGB, all its Pixels are overwritten
+     * @return the image
+     */
+    public BufferedImage render(LatticeSegmentArray segments, LatticeRectangle viewport, BufferedImage image) {
+        int size = segments.getSize();
+        Projected projected = new Projected(size, viewport, image.getWidth(), image.getHeight());
+        for (int i = 0; i < size; i++) {
+            projected.set(
+                i, segments.getX1(i), segments.getY1(i), segments.getX2(i), segments.getY2(i),
+                COLORS[(int) (segments.getIndex(i) % 4)]
+            );
+        }
+        return rasterize(projected, image);
+    }
+
+    private BufferedImage rasterize(Projected segments, BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int tilesX = (width + TILE - 1) / TILE;
+        int tilesY = (height + TILE - 1) / TILE;
+        int tiles = tilesX * tilesY;
+        int[] binStart = new int[tiles + 1];
+        for (int i = 0; i < segments.size; i++) {
+            if (segments.isVisible(i, width, height)) {
+                int fromX = tileOf(segments.minX(i), tilesX);
+                int toX = tileOf(segments.maxX(i), tilesX);
+                int fromY = tileOf(segments.minY(i), tilesY);
+                int toY = tileOf(segments.maxY(i), tilesY);
+                for (int ty = fromY; ty <= toY; ty++) {
+                    for (int tx = fromX; tx <= toX; tx++) {
+                        binStart[ty * tilesX + tx + 1]++;
+                    }
+                }
+            }
+        }
+        for (int t = 0; t < tiles; t++) {
+            binStart[t + 1] += binStart[t];
+        }
+        int[] bins = new int[binStart[tiles]];
+        int[] binEnd = new int[tiles];
+        System.arraycopy(binStart, 0, binEnd, 0, tiles);
+        for (int i = 0; i < segments.size; i++) {
+            if (segments.isVisible(i, width, height)) {
+                int fromX = tileOf(segments.minX(i), tilesX);
+                int toX = tileOf(segments.maxX(i), tilesX);
+                int fromY = tileOf(segments.minY(i), tilesY);
+                int toY = tileOf(segments.maxY(i), tilesY);
+                for (int ty = fromY; ty <= toY; ty++) {
+                    for (int tx = fromX; tx <= toX; tx++) {
+                        bins[binEnd[ty * tilesX + tx]++] = i;
+                    }
+                }
+            }
+        }
+        IntStream.range(0, tiles).parallel().forEach(tile -> {
+            int left = (tile % tilesX) * TILE;
+            int top = (tile / tilesX) * TILE;
+            int right = Math.min(left + TILE, width) - 1;
+            int bottom = Math.min(top + TILE, height) - 1;
+            for (int y = top; y <= bottom; y++) {
+                Arrays.fill(pixels, y * width + left, y * width + right + 1, BACKGROUND);
+            }
+            for (int b = binStart[tile]; b < binStart[tile + 1]; b++) {
+                int i = bins[b];
+                drawLine(pixels, width, left, top, right, bottom,
+                    segments.x1[i], segments.y1[i], segments.x2[i], segments.y2[i], segments.color[i]);
+            }
+        });
+        return image;
+    }
+
+    /**
+     * Draws one Segment given in Pixel Coordinates into an Image of its own, e.g. a Tile of a Pyramid.
+     * Segments much longer than the Image are clipped first.
+     *
+     * @param pixels the Pixels of the Image, Row by Row
+     * @param index Index of the Segment in the Level, which selects the Color
+     */
+    public static void drawSegment(
+        int[] pixels, int width, int height, long index, double px1, double py1, double px2, double py2
+    ) {
+        double[] line = {px1, py1, px2, py2};
+        if (Math.abs(px2 - px1) + Math.abs(py2 - py1) > 4 * (width + height) && !clip(line, width, height)) {
+            return;
+        }
+        drawLine(pixels, width, 0, 0, width - 1, height - 1,
+            (int) Math.floor(line[0]), (int) Math.floor(line[1]), (int) Math.floor(line[2]), (int) Math.floor(line[3]),
+            COLORS[(int) (index % 4)]);
+    }
+
+    /**
+     * Liang-Barsky: cuts the Line x1, y1, x2, y2 to the Image and one Pixel around it.
+     *
+     * @return false if the Line misses the Image
+     */
+    private static boolean clip(double[] line, int width, int height) {
+        double px1 = line[0];
+        double py1 = line[1];
+        double dx = line[2] - px1;
+        double dy = line[3] - py1;
+        double from = 0.0d;
+        double to = 1.0d;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {px1 + 1.0d, width - px1, py1 + 1.0d, height - py1};
+        for (int k = 0; k < 4 && from <= to; k++) {
+            if (p[k] == 0.0d) {
+                if (q[k] < 0.0d) {
+                    return false;
+                }
+            } else if (p[k] < 0.0d) {
+                from = Math.max(from, q[k] / p[k]);
+            } else {
+                to = Math.min(to, q[k] / p[k]);
+            }
+        }
+        if (from > to) {
+            return false;
+        }
+        line[0] = px1 + from * dx;
+        line[1] = py1 + from * dy;
+        line[2] = px1 + to * dx;
+        line[3] = py1 + to * dy;
+        return true;
+    }
+
+    private static int tileOf(int pixel, int tiles) {
+        return Math.max(0, Math.min(tiles - 1, pixel / TILE));
+    }
+
+    /**
+     * Bresenham Line, only the Pixels inside the Tile left, top, right, bottom are written.
+     *
+     * Step k of the Line from x1, y1 is k Pixels along its major Axis and floor((2 k dMinor + dMajor) / (2 dMajor))
+     * along its minor Axis, like in the Loop with the Error Term. So the Line is clipped to the Tile on its major Axis
+     * and starts at its first Step inside, and each Tile walks at most TILE Steps, however long the Line is.
+     */
+    private static void drawLine(
+        int[] pixels, int width, int left, int top, int right, int bottom, int x1, int y1, int x2, int y2, int color
+    ) {
+        int dx = Math.abs(x2 - x1);
+        int dy = Math.abs(y2 - y1);
+        int sx = x1 < x2 ? 1 : -1;
+        int sy = y1 < y2 ? 1 : -1;
+        boolean xMajor = dx >= dy;
+        long major = xMajor ? dx : dy;
+        long minor = xMajor ? dy : dx;
+        long from;
+        long to;
+        if (xMajor) {
+            from = sx > 0 ? left - x1 : x1 - right;
+            to = sx > 0 ? right - x1 : x1 - left;
+        } else {
+            from = sy > 0 ? top - y1 : y1 - bottom;
+            to = sy > 0 ? bottom - y1 : y1 - top;
+        }
+        from = Math.max(from, 0L);
+        to = Math.min(to, major);
+        if (from > to) {
+            return;
+        }
+        long twoMajor = Math.max(1L, 2L * major);
+        long twoMinor = 2L * minor;
+        long numerator = from * twoMinor + major;
+        long j = numerator / twoMajor;
+        long remainder = numerator - j * twoMajor;
+        for (long k = from; k <= to; k++) {
+            int x = (int) (xMajor ? x1 + sx * k : x1 + sx * j);
+            int y = (int) (xMajor ? y1 + sy * j : y1 + sy * k);
+            if (x >= left && x <= right && y >= top && y <= bottom) {
+                pixels[y * width + x] = color;
+            }
+            remainder += twoMinor;
+            if (remainder >= twoMajor) {
+                remainder -= twoMajor;
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Segments in Pixel Coordinates of the Image.
+     */
+    private static class Projected {
+
+        private final int size;
+        private final int[] x1;
+        private final int[] y1;
+        private final int[] x2;
+        private final int[] y2;
+        private final int[] color;
+        private final double scaleX;
+        private final double scaleY;
+        private final int viewportX;
+        private final int viewportY;
+        private final int width;
+        private final int height;
+        private final int clipLength;
+
+        Projected(int size, LatticeRectangle viewport, int width, int height) {
+            this.size = size;
+            this.width = width;
+            this.height = height;
+            this.clipLength = 4 * (width + height);
+            this.x1 = new int[size];
+            this.y1 = new int[size];
+            this.x2 = new int[size];
+            this.y2 = new int[size];
+            this.color = new int[size];
+            this.scaleX = ((double) width) / viewport.getDimension().getWidth();
+            this.scaleY = ((double) height) / viewport.getDimension().getHeight();
+            this.viewportX = viewport.getStart().getX();
+            this.viewportY = viewport.getStart().getY();
+        }
+
+        /**
+         * Projects a Segment to the Image. Segments much longer than the Image, which happen only in zoomed Views,
+         * are clipped to the Image first, so they are not walked Pixel by Pixel far outside.
+         */
+        void set(int i, int ax, int ay, int bx, int by, int rgb) {
+            double[] line = {(ax - viewportX) * scaleX, (ay - viewportY) * scaleY, (bx - viewportX) * scaleX, (by - viewportY) * scaleY};
+            if (Math.abs(line[2] - line[0]) + Math.abs(line[3] - line[1]) > clipLength && !clip(line, width, height)) {
+                // entirely outside: a Point left above the Image, which isVisible drops
+                line[0] = line[1] = line[2] = line[3] = -2.0d;
+            }
+            x1[i] = (int) Math.floor(line[0]);
+            y1[i] = (int) Math.floor(line[1]);
+            x2[i] = (int) Math.floor(line[2]);
+            y2[i] = (int) Math.floor(line[3]);
+            color[i] = rgb;
+        }
+
+        int minX(int i) {
+            return Math.min(x1[i], x2[i]);
+        }
+
+        int maxX(int i) {
+            return Math.max(x1[i], x2[i]);
+        }
+
+        int minY(int i) {
+            return Math.min(y1[i], y2[i]);
+        }
+
+        int maxY(int i) {
+            return Math.max(y1[i], y2[i]);
+        }
+
+        boolean isVisible(int i, int width, int height) {
+            return maxX(i) >= 0 && minX(i) < width && maxY(i) >= 0 && minY(i) < height;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.canvas;
+
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeSegmentArray;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Draws a Level of the Koch Snowflake into any Graphics2D, on Screen or into a BufferedImage.
+ * The Viewport is the Part of the World which is scaled to width and height.
+ *
+ * The Segments are colored by their Index modulo 4. Instead of one setColor and drawLine per Segment,
+ * the Segments are collected into one Path per Color, so Java2D gets four draw Calls per Level,
+ * and the Pixels where Segments of different Colors end are redrawn with one fill per Color.
+ * The Image is the same as with drawLine Segment by Segment. A scaled Viewport is drawn Segment by Segment,
+ * as Java2D rounds a scaled Path differently from a scaled Line.
+ * The Paths and Arrays are reused between Calls, so a Renderer must not be shared between Threads.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochSnowflakeCanvas
+ * @see LatticePointArray
+ * @see LatticeSegmentArray
+ * @see Graphics2D
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+public class KochSnowflakeRenderer {
+
+    private static final Color[] COLORS = {Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW};
+
+    private static final Color HIGHLIGHT = Color.WHITE;
+
+    private static final BasicStroke HIGHLIGHT_STROKE = new BasicStroke(3.0f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+
+    private final Path2D.Float[] buckets = new Path2D.Float[COLORS.length];
+
+    /**
+     * The Endpoint Pixels of the Segments drawn last, with the Color of the last Segment ending in each,
+     * and a Stamp per Pixel, so the Arrays are reused without clearing them.
+     */
+    private int[] endpoints = new int[4096];
+    private int endpointCount;
+    private int[] endpointStamps = new int[0];
+    private byte[] endpointColors = new byte[0];
+    private int endpointStamp;
+    private int endpointsX;
+    private int endpointsY;
+    private int endpointsWidth;
+    private int endpointsHeight;
+
+    public KochSnowflakeRenderer() {
+        for (int c = 0; c < COLORS.length; c++) {
+            this.buckets[c] = new Path2D.Float(Path2D.WIND_NON_ZERO, 4096);
+        }
+    }
+
+    public BufferedImage render(LatticePointArray vertices, LatticeRectangle viewport, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            render(g, vertices, viewport, width, height);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    public void render(Graphics2D g, LatticePointArray vertices, LatticeRectangle viewport, int width, int height) {
+        fillBackground(g, width, height);
+        Graphics2D world = (Graphics2D) g.create();
+        try {
+            applyViewport(world, viewport, width, height);
+            drawSegments(world, vertices, viewport, width, height);
+        } finally {
+            world.dispose();
+        }
+    }
+
+    /**
+     * Draws only the given Segments, e.g. those of a zoomed Viewport.
+     */
+    public BufferedImage render(LatticeSegmentArray segments, LatticeRectangle viewport, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            render(g, segments, viewport, width, height);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    public void render(Graphics2D g, LatticeSegmentArray segments, LatticeRectangle viewport, int width, int height) {
+        fillBackground(g, width, height);
+        Graphics2D world = (Graphics2D) g.create();
+        try {
+            applyViewport(world, viewport, width, height);
+            drawSegments(world, segments, viewport, width, height);
+        } finally {
+            world.dispose();
+        }
+    }
+
+    /**
+     * Draws Segments on top of what g shows already, e.g. the Chunks of a Level which is still computed.
+     */
+    public void overlay(Graphics2D g, LatticeSegmentArray segments, LatticeRectangle viewport, int width, int height) {
+        Graphics2D world = (Graphics2D) g.create();
+        try {
+            applyViewport(world, viewport, width, height);
+            drawSegments(world, segments, viewport, width, height);
+        } finally {
+            world.dispose();
+        }
+    }
+
+    /**
+     * Draws one Segment of the World highlighted, three Pixels wide on Screen at any Zoom, e.g. the picked one.
+     */
+    public void highlight(Graphics2D g, int x1, int y1, int x2, int y2, LatticeRectangle viewport, int width, int height) {
+        double scaleX = ((double) width) / viewport.getDimension().getWidth();
+        double scaleY = ((double) height) / viewport.getDimension().getHeight();
+        double startX = viewport.getStart().getX();
+        double startY = viewport.getStart().getY();
+        Graphics2D screen = (Graphics2D) g.create();
+        try {
+            screen.setColor(HIGHLIGHT);
+            screen.setStroke(HIGHLIGHT_STROKE);
+            screen.draw(new Line2D.Double(
+                (x1 - startX) * scaleX, (y1 - startY) * scaleY, (x2 - startX) * scaleX, (y2 - startY) * scaleY
+            ));
+        } finally {
+            screen.dispose();
+        }
+    }
+
+    private void fillBackground(Graphics2D g, int width, int height) {
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, width, height);
+    }
+
+    private void applyViewport(Graphics2D g, LatticeRectangle viewport, int width, int height) {
+        int viewportWidth = viewport.getDimension().getWidth();
+        int viewportHeight = viewport.getDimension().getHeight();
+        if (viewportWidth != width || viewportHeight != height) {
+            g.scale(((double) width) / viewportWidth, ((double) height) / viewportHeight);
+        }
+        g.translate(-viewport.getStart().getX(), -viewport.getStart().getY());
+    }
+
+    private void drawSegments(Graphics2D g, LatticePointArray vertices, LatticeRectangle viewport, int width, int height) {
+        int[] x = vertices.getX();
+        int[] y = vertices.getY();
+        int size = vertices.getSize();
+        if (!isPixelExact(g)) {
+            for(int i = 0; i < size; i++) {
+                int j = vertices.next(i);
+                g.setColor(COLORS[i % 4]);
+                g.drawLine(x[i], y[i], x[j], y[j]);
+            }
+            return;
+        }
+        resetBuckets();
+        startEndpoints(viewport, width, height);
+        for(int i = 0; i < size; i++) {
+            int j = vertices.next(i);
+            Path2D.Float bucket = buckets[i % 4];
+            bucket.moveTo(x[i], y[i]);
+            bucket.lineTo(x[j], y[j]);
+            endpoint(x[i], y[i], i % 4);
+            endpoint(x[j], y[j], i % 4);
+        }
+        drawBuckets(g);
+        drawEndpoints(g);
+    }
+
+    private void drawSegments(Graphics2D g, LatticeSegmentArray segments, LatticeRectangle viewport, int width, int height) {
+        int size = segments.getSize();
+        if (!isPixelExact(g)) {
+            for(int i = 0; i < size; i++) {
+                g.setColor(COLORS[(int) (segments.getIndex(i) % 4)]);
+                g.drawLine(segments.getX1(i), segments.getY1(i), segments.getX2(i), segments.getY2(i));
+            }
+            return;
+        }
+        resetBuckets();
+        startEndpoints(viewport, width, height);
+        for(int i = 0; i < size; i++) {
+            int c = (int) (segments.getIndex(i) % 4);
+            Path2D.Float bucket = buckets[c];
+            bucket.moveTo(segments.getX1(i), segments.getY1(i));
+            bucket.lineTo(segments.getX2(i), segments.getY2(i));
+            endpoint(segments.getX1(i), segments.getY1(i), c);
+            endpoint(segments.getX2(i), segments.getY2(i), c);
+        }
+        drawBuckets(g);
+        drawEndpoints(g);
+    }
+
+    /**
+     * Only under an integer Translation a Path is drawn with the same Pixels as drawLine draws its Segments;
+     * a scaled Path is rounded differently, then the Segments are drawn one by one.
+     */
+    private static boolean isPixelExact(Graphics2D g) {
+        AffineTransform transform = g.getTransform();
+        return (transform.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0
+            && transform.getTranslateX() == Math.rint(transform.getTranslateX())
+            && transform.getTranslateY() == Math.rint(transform.getTranslateY());
+    }
+
+    private void resetBuckets() {
+        for (Path2D.Float bucket : buckets) {
+            bucket.reset();
+        }
+    }
+
+    private void drawBuckets(Graphics2D g) {
+        for (int c = 0; c < COLORS.length; c++) {
+            g.setColor(COLORS[c]);
+            g.draw(buckets[c]);
+        }
+        resetBuckets();
+    }
+
+    /**
+     * Prepares to collect the Endpoint Pixels inside the Viewport, which is not scaled.
+     */
+    private void startEndpoints(LatticeRectangle viewport, int width, int height) {
+        this.endpointsX = viewport.getStart().getX();
+        this.endpointsY = viewport.getStart().getY();
+        this.endpointsWidth = width;
+        this.endpointsHeight = height;
+        int pixels = width * height;
+        if (this.endpointStamps.length < pixels) {
+            this.endpointStamps = new int[pixels];
+            this.endpointColors = new byte[pixels];
+            this.endpointStamp = 0;
+        }
+        if (++this.endpointStamp == Integer.MAX_VALUE) {
+            Arrays.fill(this.endpointStamps, 0);
+            this.endpointStamp = 1;
+        }
+        this.endpointCount = 0;
+    }
+
+    /**
+     * Segments of different Buckets share only their Endpoint Pixels. drawLine in Segment Order leaves there
+     * the Color of the last Segment which ends in the Pixel, the Buckets the Color of the last Bucket,
+     * so the Color of the last Segment is remembered here and the Pixel redrawn after the Buckets.
+     */
+    private void endpoint(int x, int y, int color) {
+        int column = x - this.endpointsX;
+        int row = y - this.endpointsY;
+        if (column < 0 || row < 0 || column >= this.endpointsWidth || row >= this.endpointsHeight) {
+            return;
+        }
+        int pixel = row * this.endpointsWidth + column;
+        if (this.endpointStamps[pixel] != this.endpointStamp) {
+            this.endpointStamps[pixel] = this.endpointStamp;
+            if (this.endpointCount == this.endpoints.length) {
+                this.endpoints = Arrays.copyOf(this.endpoints, 2 * this.endpoints.length);
+            }
+            this.endpoints[this.endpointCount++] = pixel;
+        }
+        this.endpointColors[pixel] = (byte) color;
+    }
+
+    private void drawEndpoints(Graphics2D g) {
+        for (int e = 0; e < this.endpointCount; e++) {
+            int pixel = this.endpoints[e];
+            int x = this.endpointsX + pixel % this.endpointsWidth;
+            int y = this.endpointsY + pixel / this.endpointsWidth;
+            Path2D.Float bucket = buckets[this.endpointColors[pixel]];
+            bucket.moveTo(x, y);
+            bucket.lineTo(x + 1, y);
+            bucket.lineTo(x + 1, y + 1);
+            bucket.lineTo(x, y + 1);
+            bucket.closePath();
+        }
+        for (int c = 0; c < COLORS.length; c++) {
+            g.setColor(COLORS[c]);
+            g.fill(buckets[c]);
+        }
+        resetBuckets();
+    }
+}
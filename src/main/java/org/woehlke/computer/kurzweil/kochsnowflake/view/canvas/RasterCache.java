@@ -0,0 +1,96 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.canvas;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded Cache of rendered Levels, so switching back to a Level costs one Blit instead of rendering it again.
+ *
+ * Least recently used Images are evicted when the Memory Budget is exceeded.
+ * The Images are only softly referenced, so the Garbage Collector may drop them under Memory Pressure.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see RasterCacheKey
+ * @see KochSnowflakeCanvas
+ * @see SoftReference
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Log4j2
+public class RasterCache {
+
+    @Getter
+    private final long budgetBytes;
+
+    @Getter
+    private long usedBytes;
+
+    private final LinkedHashMap<RasterCacheKey, SoftReference<BufferedImage>> images;
+
+    public RasterCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        this.usedBytes = 0L;
+        this.images = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized BufferedImage get(RasterCacheKey key) {
+        SoftReference<BufferedImage> reference = images.get(key);
+        if (reference == null) {
+            return null;
+        }
+        BufferedImage image = reference.get();
+        if (image == null) {
+            images.remove(key);
+            usedBytes -= key.getBytes();
+        }
+        return image;
+    }
+
+    public void put(RasterCacheKey key, BufferedImage image) {
+        put(key, new SoftReference<>(image));
+    }
+
+    /**
+     * Like put, with the Reference given, so a Test can clear it like the Garbage Collector would.
+     */
+    synchronized void put(RasterCacheKey key, SoftReference<BufferedImage> reference) {
+        if (key.getBytes() > budgetBytes) {
+            return;
+        }
+        SoftReference<BufferedImage> old = images.put(key, reference);
+        if (old == null) {
+            usedBytes += key.getBytes();
+        }
+        evict();
+    }
+
+    public synchronized void clear() {
+        images.clear();
+        usedBytes = 0L;
+    }
+
+    /**
+     * Drops cleared References first, then the least recently used Images until the Budget is met.
+     */
+    private void evict() {
+        Iterator<Map.Entry<RasterCacheKey, SoftReference<BufferedImage>>> iterator = images.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<RasterCacheKey, SoftReference<BufferedImage>> entry = iterator.next();
+            if (usedBytes > budgetBytes || entry.getValue().get() == null) {
+                log.debug("evict " + entry.getKey());
+                usedBytes -= entry.getKey().getBytes();
+                iterator.remove();
+            }
+        }
+    }
+}
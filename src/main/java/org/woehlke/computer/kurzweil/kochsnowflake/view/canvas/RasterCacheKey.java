@@ -0,0 +1,35 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.canvas;
+
+import lombok.*;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+
+/**
+ * Identifies a rendered Image in the RasterCache.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see RasterCache
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+@EqualsAndHashCode
+public class RasterCacheKey {
+
+    private final int level;
+
+    private final int width;
+
+    private final int height;
+
+    private final LatticeRectangle viewport;
+
+    public long getBytes() {
+        return 4L * width * height;
+    }
+}
@@ -0,0 +1,117 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes ASCII Text and Numbers through a fixed Buffer into a Channel, without creating a String per Number.
+ * The Buffer is written to the Channel whenever it is full, so Memory stays the same for any Length of Output.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see VectorExporter
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+public class AsciiChannelWriter implements Closeable {
+
+    /**
+     * Longest Number: sign, 19 digits and the decimal Point.
+     */
+    private static final int MAX_NUMBER = 21;
+
+    private final WritableByteChannel channel;
+
+    private final ByteBuffer buffer;
+
+    private final byte[] digits = new byte[MAX_NUMBER];
+
+    public AsciiChannelWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 2 * MAX_NUMBER));
+    }
+
+    public AsciiChannelWriter write(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        return this;
+    }
+
+    public AsciiChannelWriter write(char c) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) c);
+        return this;
+    }
+
+    /**
+     * Writes value / 10^decimals, without trailing Zeros of the Fraction.
+     *
+     * @param value the Number, scaled by 10^decimals
+     * @param decimals number of Digits after the decimal Point, 0 .. 18
+     */
+    public AsciiChannelWriter writeFixed(long value, int decimals) throws IOException {
+        if (buffer.remaining() < MAX_NUMBER) {
+            flush();
+        }
+        boolean negative = value < 0;
+        long rest = Math.abs(value);
+        int position = digits.length;
+        int fraction = decimals;
+        while (fraction > 0 && rest % 10 == 0) {
+            rest /= 10;
+            fraction--;
+        }
+        for (int d = 0; d < fraction; d++) {
+            digits[--position] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        if (fraction > 0) {
+            digits[--position] = '.';
+        }
+        do {
+            digits[--position] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        } while (rest > 0);
+        if (negative) {
+            digits[--position] = '-';
+        }
+        buffer.put(digits, position, digits.length - position);
+        return this;
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Flushes and closes the Channel.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.export;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochViewportSubdivision;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochVertexLookup;
+import org.woehlke.computer.kurzweil.kochsnowflake.view.canvas.KochSnowflakeRasterizer;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders a Snowflake far larger than any BufferedImage as a Pyramid of Tiles, like Deep Zoom Viewers load them.
+ *
+ * Zoom Level z is a square Image of TILE * 2^z Pixels, which contains the whole World, centered.
+ * It is cut into 2^z * 2^z Tiles, written as directory/z/x/y.png.
+ * Each Tile pulls only the Segments whose Bounding Triangle touches it from KochViewportSubdivision,
+ * and each Zoom Level uses the built-in Koch Rule only down to the Level whose Segments are about one Pixel long.
+ *
+ * A fixed Number of Workers takes the Tiles one after the other, each with its own Tile Image,
+ * so the Memory stays bounded by the Workers and not by the Size of the Pyramid.
+ * A Tile is written to a .part File first and then renamed, so Tiles which exist are complete
+ * and are skipped when an interrupted Export is started again.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see KochViewportSubdivision
+ * @see KochSnowflakeRasterizer
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Log4j2
+@Getter
+public class TilePyramidExporter {
+
+    /**
+     * Width and Height of a Tile in Pixels.
+     */
+    public static final int TILE = 256;
+
+    /**
+     * Zoom 16 is an Image of 16777216 Pixels squared.
+     */
+    public static final int MAX_ZOOM = 16;
+
+    private static final int BACKGROUND = Color.BLACK.getRGB();
+
+    private final int workers;
+
+    public TilePyramidExporter(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive: " + workers);
+        }
+        this.workers = workers;
+    }
+
+    /**
+     * @param seed the Seed Triangle of the Level
+     * @param world the Dimensions of the World
+     * @param level the finest Level, used where its Segments are still longer than a Pixel
+     * @param maxZoom the highest Zoom Level, 0 .. MAX_ZOOM
+     * @param directory the Root of the Pyramid, created if missing
+     * @return the Number of Tiles written, without the skipped ones
+     * @throws IOException if a Tile cannot be written
+     */
+    public long export(LatticePointArray seed, LatticeDimension world, int level, int maxZoom, Path directory) throws IOException {
+        if (maxZoom < 0 || maxZoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("maxZoom must be 0 .. " + MAX_ZOOM + ": " + maxZoom);
+        }
+        if (level < 0 || level > KochVertexLookup.MAX_LEVEL) {
+            throw new IllegalArgumentException("level out of range: " + level);
+        }
+        KochViewportSubdivision subdivision = new KochViewportSubdivision(seed);
+        double side = Math.hypot(seed.getX(1) - seed.getX(0), seed.getY(1) - seed.getY(0));
+        long written = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(this.workers);
+        try {
+            for (int zoom = 0; zoom <= maxZoom; zoom++) {
+                long start = System.currentTimeMillis();
+                Zoom z = new Zoom(zoom, world, side, level, directory);
+                AtomicLong next = new AtomicLong();
+                List<Future<Long>> results = new ArrayList<>();
+                for (int w = 0; w < this.workers; w++) {
+                    results.add(pool.submit(() -> renderTiles(subdivision, z, next)));
+                }
+                long writtenInZoom = 0;
+                for (Future<Long> result : results) {
+                    writtenInZoom += await(result);
+                }
+                written += writtenInZoom;
+                log.info("zoom " + zoom + " level " + z.level + ": " + writtenInZoom + " of " + z.tiles * z.tiles
+                    + " Tiles written in " + (System.currentTimeMillis() - start) + " ms");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return written;
+    }
+
+    /**
+     * The Loop of one Worker: takes the next Tile until none is left.
+     */
+    private long renderTiles(KochViewportSubdivision subdivision, Zoom zoom, AtomicLong next) throws IOException {
+        BufferedImage image = new BufferedImage(TILE, TILE, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        long count = zoom.tiles * zoom.tiles;
+        long written = 0;
+        for (long tile = next.getAndIncrement(); tile < count; tile = next.getAndIncrement()) {
+            long tx = tile % zoom.tiles;
+            long ty = tile / zoom.tiles;
+            Path file = zoom.directory.resolve(Long.toString(tx)).resolve(ty + ".png");
+            if (Files.exists(file)) {
+                continue;
+            }
+            renderTile(subdivision, zoom, tx, ty, pixels);
+            Files.createDirectories(file.getParent());
+            Path part = file.resolveSibling(ty + ".png.part");
+            if (!ImageIO.write(image, "png", part.toFile())) {
+                throw new IOException("no ImageIO Writer for png");
+            }
+            Files.move(part, file, StandardCopyOption.ATOMIC_MOVE);
+            written++;
+        }
+        return written;
+    }
+
+    private void renderTile(KochViewportSubdivision subdivision, Zoom zoom, long tx, long ty, int[] pixels) {
+        Arrays.fill(pixels, BACKGROUND);
+        double left = tx * (double) TILE;
+        double top = ty * (double) TILE;
+        double pixel = 1.0d / zoom.scale;
+        subdivision.visit(
+            zoom.level,
+            zoom.originX + left * pixel - pixel,
+            zoom.originY + top * pixel - pixel,
+            zoom.originX + (left + TILE) * pixel + pixel,
+            zoom.originY + (top + TILE) * pixel + pixel,
+            (index, ax, ay, bx, by) -> KochSnowflakeRasterizer.drawSegment(
+                pixels, TILE, TILE, index,
+                (ax - zoom.originX) * zoom.scale - left, (ay - zoom.originY) * zoom.scale - top,
+                (bx - zoom.originX) * zoom.scale - left, (by - zoom.originY) * zoom.scale - top
+            )
+        );
+    }
+
+    private static long await(Future<Long> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * One Zoom Level: the Tiles per Row, the Projection from the World and the Level of the Koch Curve.
+     */
+    private static class Zoom {
+
+        private final long tiles;
+        private final double scale;
+        private final double originX;
+        private final double originY;
+        private final int level;
+        private final Path directory;
+
+        Zoom(int zoom, LatticeDimension world, double side, int maxLevel, Path root) {
+            this.tiles = 1L << zoom;
+            double size = ((double) TILE) * this.tiles;
+            int worldSize = Math.max(world.getWidth(), world.getHeight());
+            this.scale = size / worldSize;
+            this.originX = (world.getWidth() - worldSize) * 0.5d;
+            this.originY = (world.getHeight() - worldSize) * 0.5d;
+            int onePixel = (int) Math.ceil(Math.log(Math.max(1.0d, side * this.scale)) / Math.log(3.0d));
+            this.level = Math.min(maxLevel, onePixel);
+            this.directory = root.resolve(Integer.toString(zoom));
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.export;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.KochVertexLookup;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the closed Polygon of a Level as SVG Path or as EPS, streaming in Chunks through an AsciiChannelWriter.
+ *
+ * The Vertices are read in Chunks, either from a computed Level or lazily from KochVertexLookup,
+ * so neither the Level nor the Text has to fit into Memory.
+ * With compact Coordinates each Vertex is written as Difference to the one before, with as few Separators as possible.
+ * The Coordinates are rounded to a fixed Number of Decimals first and the Differences are taken from the rounded Values,
+ * so the relative Path does not drift.
+ *
+ * Koch Snowflake. A Fractal with self self-similarity.
+ * (C) 2006 - 2022 Thomas Woehlke
+ * @author Thomas Woehlke
+ *
+ * @see AsciiChannelWriter
+ * @see KochVertexLookup
+ *
+ * @see <a href="https://github.com/Computer-Kurzweil/kochsnowflake">Github Repository</a>
+ * @see <a href="https://java.woehlke.org/kochsnowflake/">Maven Project Reports</a>
+ */
+@Log4j2
+@Getter
+public class VectorExporter {
+
+    public enum Format {
+        SVG, EPS;
+
+        /**
+         * @param file a File Name ending with .svg or .eps
+         * @return the Format, or null for any other Extension
+         */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            if (name.endsWith(".svg")) {
+                return SVG;
+            } else if (name.endsWith(".eps")) {
+                return EPS;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Vertices read per Chunk.
+     */
+    private static final int CHUNK = 8192;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * EPS Paths are stroked and started again after so many Segments, to stay below the Limits of PostScript Interpreters.
+     */
+    private static final int EPS_SUBPATH = 4096;
+
+    private final Format format;
+
+    private final boolean compact;
+
+    /**
+     * Digits after the decimal Point, 0 .. 6.
+     */
+    private final int decimals;
+
+    public VectorExporter(Format format, boolean compact, int decimals) {
+        if (decimals < 0 || decimals > 6) {
+            throw new IllegalArgumentException("decimals must be 0 .. 6: " + decimals);
+        }
+        this.format = format;
+        this.compact = compact;
+        this.decimals = decimals;
+    }
+
+    /**
+     * Exports a computed Level.
+     */
+    public void export(LatticePointArray vertices, LatticeRectangle viewport, int width, int height, Path out) throws IOException {
+        export(new VertexSource() {
+            @Override
+            public long size() {
+                return vertices.getSize();
+            }
+
+            @Override
+            public void read(long from, int count, double[] x, double[] y) {
+                for (int n = 0; n < count; n++) {
+                    x[n] = vertices.getX((int) from + n);
+                    y[n] = vertices.getY((int) from + n);
+                }
+            }
+        }, viewport, width, height, out);
+    }
+
+    /**
+     * Exports a Level without computing it, the Vertices are generated Chunk by Chunk.
+     */
+    public void export(KochVertexLookup lookup, int level, LatticeRectangle viewport, int width, int height, Path out) throws IOException {
+        export(new VertexSource() {
+            @Override
+            public long size() {
+                return lookup.vertexCount(level);
+            }
+
+            @Override
+            public void read(long from, int count, double[] x, double[] y) {
+                lookup.vertices(level, from, count, x, y);
+            }
+        }, viewport, width, height, out);
+    }
+
+    private interface VertexSource {
+
+        long size();
+
+        void read(long from, int count, double[] x, double[] y);
+    }
+
+    private void export(VertexSource source, LatticeRectangle viewport, int width, int height, Path out) throws IOException {
+        long start = System.currentTimeMillis();
+        double scale = Math.pow(10, decimals);
+        double scaleX = scale * width / viewport.getDimension().getWidth();
+        double scaleY = scale * height / viewport.getDimension().getHeight();
+        double offsetX = viewport.getStart().getX();
+        double offsetY = viewport.getStart().getY();
+        FileChannel channel = FileChannel.open(out,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try (AsciiChannelWriter writer = new AsciiChannelWriter(channel, BUFFER_SIZE)) {
+            writeHeader(writer, width, height);
+            double[] x = new double[CHUNK];
+            double[] y = new double[CHUNK];
+            long size = source.size();
+            long firstX = 0;
+            long firstY = 0;
+            long lastX = 0;
+            long lastY = 0;
+            for (long from = 0; from < size; from += CHUNK) {
+                int count = (int) Math.min(CHUNK, size - from);
+                source.read(from, count, x, y);
+                for (int n = 0; n < count; n++) {
+                    long px = Math.round((x[n] - offsetX) * scaleX);
+                    long py = Math.round((y[n] - offsetY) * scaleY);
+                    if (format == Format.EPS) {
+                        py = Math.round(scale * height) - py;
+                    }
+                    long index = from + n;
+                    if (index == 0) {
+                        firstX = px;
+                        firstY = py;
+                        writeMoveTo(writer, px, py);
+                    } else {
+                        writeLineTo(writer, index, px, py, lastX, lastY);
+                    }
+                    lastX = px;
+                    lastY = py;
+                }
+            }
+            if (size > 0) {
+                writeClose(writer, size, firstX, firstY, lastX, lastY);
+            }
+            writeFooter(writer);
+        }
+        log.info("exported " + source.size() + " Vertices as " + format + " to " + out
+            + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private void writeHeader(AsciiChannelWriter writer, int width, int height) throws IOException {
+        if (format == Format.SVG) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + width + "\" height=\"" + height
+                    + "\" viewBox=\"0 0 " + width + " " + height + "\">\n")
+                .write("<path fill=\"none\" stroke=\"black\" stroke-width=\"0.5\" stroke-linejoin=\"round\" d=\"");
+        } else {
+            writer.write("%!PS-Adobe-3.0 EPSF-3.0\n")
+                .write("%%BoundingBox: 0 0 " + width + " " + height + "\n")
+                .write("%%Title: Koch Snowflake\n")
+                .write("%%EndComments\n")
+                .write("/m {moveto} bind def /l {lineto} bind def /r {rlineto} bind def\n")
+                .write("0.5 setlinewidth 1 setlinejoin 0 setgray\n")
+                .write("newpath\n");
+        }
+    }
+
+    private void writeMoveTo(AsciiChannelWriter writer, long x, long y) throws IOException {
+        if (format == Format.SVG) {
+            writer.write('M');
+            writePair(writer, x, y, true);
+            writer.write(compact ? 'l' : '\n');
+        } else {
+            writePair(writer, x, y, true);
+            writer.write(" m\n");
+        }
+    }
+
+    private void writeLineTo(AsciiChannelWriter writer, long index, long x, long y, long lastX, long lastY) throws IOException {
+        boolean relative = compact;
+        long wx = relative ? x - lastX : x;
+        long wy = relative ? y - lastY : y;
+        if (format == Format.SVG) {
+            if (!relative) {
+                writer.write('L');
+            }
+            writePair(writer, wx, wy, index == 1 || !relative);
+            if (!relative || index % 16 == 0) {
+                writer.write('\n');
+            }
+        } else {
+            writePair(writer, wx, wy, true);
+            writer.write(relative ? " r\n" : " l\n");
+            if (index % EPS_SUBPATH == 0) {
+                writer.write("currentpoint stroke m\n");
+            }
+        }
+    }
+
+    private void writeClose(AsciiChannelWriter writer, long size, long firstX, long firstY, long lastX, long lastY) throws IOException {
+        if (format == Format.SVG) {
+            writer.write(compact ? "z" : "Z");
+        } else {
+            writeLineTo(writer, size, firstX, firstY, lastX, lastY);
+            writer.write("stroke\n");
+        }
+    }
+
+    private void writeFooter(AsciiChannelWriter writer) throws IOException {
+        if (format == Format.SVG) {
+            writer.write("\"/>\n</svg>\n");
+        } else {
+            writer.write("showpage\n%%EOF\n");
+        }
+    }
+
+    /**
+     * Writes x and y. In compact SVG a Minus Sign is Separator enough, else a Space is written before each Number.
+     */
+    private void writePair(AsciiChannelWriter writer, long x, long y, boolean first) throws IOException {
+        boolean tight = compact && format == Format.SVG;
+        if (!first || !tight) {
+            if (!tight || x >= 0) {
+                writer.write(' ');
+            }
+        }
+        writer.writeFixed(x, decimals);
+        if (!tight || y >= 0) {
+            writer.write(' ');
+        }
+        writer.writeFixed(y, decimals);
+    }
+}
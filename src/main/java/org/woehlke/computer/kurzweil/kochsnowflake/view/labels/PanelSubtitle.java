@@ -17,12 +17,25 @@ public class PanelSubtitle extends JPanel {
 
   private final static long serialVersionUID = 242L;
 
+  /**
+   * Progress and Outcome of the Step in the Background.
+   */
+  private final JLabel status = new JLabel();
+
   public PanelSubtitle(String subtitle) {
       int align = FlowLayout.CENTER;
       int hgap = 2;
       int vgap = 2;
       this.setLayout(new FlowLayout(align,hgap, vgap));
       this.add(new JLabel(subtitle));
+      this.add(status);
+  }
+
+  /**
+   * @param status shown next to the Subtitle, empty to show nothing
+   */
+  public void setStatus(String status) {
+      this.status.setText(status);
   }
 
 }
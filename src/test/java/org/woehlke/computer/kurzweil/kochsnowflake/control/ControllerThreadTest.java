@@ -0,0 +1,185 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.control;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.KochSnowflakeModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class ControllerThreadTest {
+
+    private static final int MAX_ITERATIONS = 3;
+
+    /**
+     * Longer than any Test, so a Step which waits for it never runs.
+     */
+    private static final int ONE_HOUR = 3600000;
+
+    private KochSnowflakeModel model;
+
+    private ControllerThread controller;
+
+    private final AtomicInteger repaints = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        ComputerKurzweilProperties config;
+        try (InputStream input = getClass().getResourceAsStream("/application.yml")) {
+            config = new ObjectMapper(new YAMLFactory()).readValue(input, ComputerKurzweilProperties.class);
+        }
+        this.model = new KochSnowflakeModel(config);
+        this.model.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (this.controller != null) {
+            this.controller.exit();
+        }
+    }
+
+    private ControllerThread controller(int threadSleepTime) {
+        this.controller = new ControllerThread(this.model, threadSleepTime, MAX_ITERATIONS, 100, this.repaints::incrementAndGet);
+        return this.controller;
+    }
+
+    private int level() {
+        return this.model.getLinkedListNodeContainer().getLevel();
+    }
+
+    /**
+     * Waits until the Step Thread has run everything submitted before, e.g. a single Step.
+     */
+    private void awaitStepThread() throws Exception {
+        this.controller.getStepScheduler().submit(() -> {}).get(10L, TimeUnit.SECONDS);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(1L);
+        }
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void stopsAtMaxIterationsTest() throws Exception {
+        log.info("stopsAtMaxIterationsTest start");
+        controller(1).start();
+        await(() -> this.controller.getStepTask() == null);
+        awaitStepThread();
+        assertEquals(MAX_ITERATIONS, level());
+        assertEquals(MAX_ITERATIONS, this.controller.getIterations());
+        assertNotNull(this.controller.getFrameTask());
+        log.info("stopsAtMaxIterationsTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void pauseResumeAndSingleStepTest() throws Exception {
+        log.info("pauseResumeAndSingleStepTest start");
+        controller(ONE_HOUR).pause();
+        this.controller.start();
+        assertNull(this.controller.getStepTask());
+        awaitStepThread();
+        assertEquals(0, level());
+        this.controller.singleStep();
+        awaitStepThread();
+        assertEquals(1, level());
+        this.controller.resume();
+        assertTrue(this.controller.getStepTask().getDelay(TimeUnit.MILLISECONDS) > ONE_HOUR - 60000L);
+        this.controller.togglePause();
+        assertTrue(this.controller.isPaused());
+        assertNull(this.controller.getStepTask());
+        this.controller.singleStep();
+        awaitStepThread();
+        assertEquals(2, level());
+        log.info("pauseResumeAndSingleStepTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void firstStepAtOnceThenTheRestOfTheDelayTest() throws Exception {
+        log.info("firstStepAtOnceThenTheRestOfTheDelayTest start");
+        controller(ONE_HOUR).start();
+        await(() -> level() == 1);
+        awaitStepThread();
+        this.controller.pause();
+        this.controller.resume();
+        assertTrue(this.controller.getStepTask().getDelay(TimeUnit.MILLISECONDS) > ONE_HOUR - 60000L);
+        this.controller.setIconified(true);
+        this.controller.setIconified(false);
+        assertTrue(this.controller.getStepTask().getDelay(TimeUnit.MILLISECONDS) > ONE_HOUR - 60000L);
+        awaitStepThread();
+        assertEquals(1, level());
+        log.info("firstStepAtOnceThenTheRestOfTheDelayTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void iconifiedCancelsTheTasksTest() throws Exception {
+        log.info("iconifiedCancelsTheTasksTest start");
+        controller(1).setIconified(true);
+        this.controller.start();
+        assertNull(this.controller.getStepTask());
+        assertNull(this.controller.getFrameTask());
+        awaitStepThread();
+        this.controller.getFrameScheduler().submit(() -> {}).get(10L, TimeUnit.SECONDS);
+        assertEquals(0, level());
+        assertEquals(0, this.repaints.get());
+        this.controller.setIconified(false);
+        assertNotNull(this.controller.getFrameTask());
+        await(() -> level() == MAX_ITERATIONS);
+        this.controller.setIconified(true);
+        assertNull(this.controller.getFrameTask());
+        log.info("iconifiedCancelsTheTasksTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void repaintRequestsAreCoalescedTest() {
+        log.info("repaintRequestsAreCoalescedTest start");
+        controller(1);
+        this.controller.frame();
+        assertEquals(0, this.repaints.get());
+        for (int i = 0; i < 100; i++) {
+            this.controller.requestRepaint();
+        }
+        this.controller.frame();
+        assertEquals(1, this.repaints.get());
+        this.controller.frame();
+        assertEquals(1, this.repaints.get());
+        this.controller.requestRepaint();
+        this.controller.frame();
+        assertEquals(2, this.repaints.get());
+        log.info("repaintRequestsAreCoalescedTest done");
+    }
+}
@@ -0,0 +1,64 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.control;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.KochSnowflakeModel;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class FrameSequenceRendererTest {
+
+    /**
+     * run Test
+     */
+    @Test
+    public void framesAreWrittenInOrderTest(@TempDir Path scratch) throws IOException {
+        log.info("framesAreWrittenInOrderTest start");
+        ComputerKurzweilProperties config;
+        try (InputStream input = getClass().getResourceAsStream("/application.yml")) {
+            config = new ObjectMapper(new YAMLFactory()).readValue(input, ComputerKurzweilProperties.class);
+        }
+        KochSnowflakeModel model = new KochSnowflakeModel(config);
+        FrameSequenceRenderer renderer = new FrameSequenceRenderer(model, 2);
+        LatticeRectangle zoomTo = LatticeRectangle.of(250, 320, 96, 70);
+        assertTrue(renderer.render(2, 3, zoomTo, 160, 117, scratch) > 0.0d);
+        try (Stream<Path> files = Files.list(scratch)) {
+            assertEquals(9, files.count());
+        }
+        assertTrue(Files.exists(scratch.resolve("frame-000008.png")));
+        Path whole = scratch.resolve("whole");
+        renderer.render(4, 1, null, 160, 117, whole);
+        HeadlessRenderer headless = new HeadlessRenderer(config);
+        for (int level = 0; level <= 4; level++) {
+            BufferedImage frame = ImageIO.read(whole.resolve(String.format("frame-%06d.png", level)).toFile());
+            BufferedImage expected = headless.renderImage(level, 160, 117);
+            for (int y = 0; y < expected.getHeight(); y++) {
+                for (int x = 0; x < expected.getWidth(); x++) {
+                    assertEquals(expected.getRGB(x, y), frame.getRGB(x, y), "Level " + level + " at " + x + "," + y);
+                }
+            }
+        }
+        LatticeRectangle last = FrameSequenceRenderer.interpolate(LatticeRectangle.of(0, 0, 960, 702), zoomTo, 1.0d);
+        assertEquals(zoomTo, last);
+        log.info("framesAreWrittenInOrderTest done");
+    }
+}
@@ -0,0 +1,46 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.control;
+
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class RenderJobTest {
+
+    /**
+     * run Test
+     */
+    @Test
+    public void parseJobsTest(@TempDir Path scratch) throws IOException {
+        log.info("parseJobsTest start");
+        Path jobList = scratch.resolve("jobs.txt");
+        Files.writeString(jobList, "# more Jobs\n--level 9 --out c.png\n\n--size 64x32 --out d.png\n");
+        String[] args = {
+            "--headless", "--level", "3", "--out", "a.png", "--size", "1920x1404", "--out", "b.png", "--jobs", jobList.toString()
+        };
+        List<RenderJob> jobs = RenderJob.parse(args, 960, 702);
+        assertEquals(4, jobs.size());
+        assertEquals(new RenderJob(3, 960, 702, Path.of("a.png")), jobs.get(0));
+        assertEquals(new RenderJob(3, 1920, 1404, Path.of("b.png")), jobs.get(1));
+        assertEquals(new RenderJob(9, 960, 702, Path.of("c.png")), jobs.get(2));
+        assertEquals(new RenderJob(0, 64, 32, Path.of("d.png")), jobs.get(3));
+        RenderJob pyramid = RenderJob.parse(new String[]{"--level", "12", "--zoom", "8", "--tiles", "tiles"}, 960, 702).get(0);
+        assertTrue(pyramid.isPyramid());
+        assertEquals(new RenderJob(12, 960, 702, Path.of("tiles"), 8), pyramid);
+        assertFalse(jobs.get(0).isPyramid());
+        assertThrows(IllegalArgumentException.class, () -> RenderJob.parse(new String[]{"--size", "64"}, 960, 702));
+        log.info("parseJobsTest done");
+    }
+}
@@ -0,0 +1,112 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.io;
+
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.MappedKochLevels;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class KochGeometryReaderTest {
+
+    /**
+     * run Test
+     */
+    @Test
+    public void writtenLevelIsReadBackTest(@TempDir Path scratch) throws IOException {
+        log.info("writtenLevelIsReadBackTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(LatticeDimension.of(960, 702));
+        container.start();
+        for (int level = 0; level < 6; level++) {
+            container.step();
+        }
+        LatticePointArray expected = container.getVertices();
+        Path file = scratch.resolve("koch-6" + KochGeometryFormat.EXTENSION);
+        try (KochGeometryWriter writer = new KochGeometryWriter(
+            file, container.getLevel(), 1, container.getWorldDimensions(), container.getVertexLookup().getSeed(), 100
+        )) {
+            writer.append(expected);
+        }
+        assertTrue(Files.size(file) < 8L * expected.getSize());
+        try (KochGeometryReader reader = KochGeometryReader.open(file)) {
+            assertEquals(6, reader.getLevel());
+            assertEquals(expected.getSize(), reader.getVertexCount());
+            assertEquals((expected.getSize() + 99) / 100, reader.getBlockCount());
+            assertEquals(container.getWorldDimensions(), reader.getWorldDimensions());
+            assertEquals(3, reader.getSeed().getSize());
+            LatticePointArray actual = reader.readVertices();
+            assertArrayEquals(expected.getX(), actual.getX());
+            assertArrayEquals(expected.getY(), actual.getY());
+        }
+        log.info("writtenLevelIsReadBackTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void fileIsReadInRegionsTest(@TempDir Path scratch) throws IOException {
+        log.info("fileIsReadInRegionsTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(LatticeDimension.of(960, 702));
+        container.start();
+        for (int level = 0; level < 6; level++) {
+            container.step();
+        }
+        LatticePointArray expected = container.getVertices();
+        Path file = scratch.resolve("koch-6" + KochGeometryFormat.EXTENSION);
+        try (KochGeometryWriter writer = new KochGeometryWriter(
+            file, container.getLevel(), 1, container.getWorldDimensions(), container.getVertexLookup().getSeed(), 100
+        )) {
+            writer.append(expected);
+        }
+        try (KochGeometryReader reader = KochGeometryReader.open(file, 10)) {
+            assertTrue(reader.getRegions().length > 4);
+            assertEquals(expected.getSize(), reader.getVertexCount());
+            assertEquals(3, reader.getSeed().getSize());
+            LatticePointArray actual = reader.readVertices();
+            assertArrayEquals(expected.getX(), actual.getX());
+            assertArrayEquals(expected.getY(), actual.getY());
+        }
+        log.info("fileIsReadInRegionsTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void mappedLevelIsWrittenLikeTheLevelOnHeapTest(@TempDir Path scratch) throws IOException {
+        log.info("mappedLevelIsWrittenLikeTheLevelOnHeapTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(LatticeDimension.of(960, 702));
+        container.start();
+        Path scratchDirectory = Files.createDirectory(scratch.resolve("levels"));
+        Path mappedFile = scratch.resolve("mapped" + KochGeometryFormat.EXTENSION);
+        try (MappedKochLevels mappedLevels = new MappedKochLevels(scratchDirectory, 64)) {
+            mappedLevels.start(container.getVertexLookup().getSeed());
+            for (int level = 0; level < 5; level++) {
+                container.step();
+                mappedLevels.step();
+            }
+            KochGeometryWriter.write(mappedFile, mappedLevels, container, 3);
+        }
+        try (var files = Files.list(scratchDirectory)) {
+            assertEquals(0L, files.count());
+        }
+        Path file = scratch.resolve("heap" + KochGeometryFormat.EXTENSION);
+        KochGeometryWriter.write(file, container, 3);
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(mappedFile));
+        log.info("mappedLevelIsWrittenLikeTheLevelOnHeapTest done");
+    }
+}
@@ -0,0 +1,57 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class KochSegmentTreeTest {
+
+    /**
+     * run Test
+     */
+    @Test
+    public void queriesEqualLinearScanTest() {
+        log.info("queriesEqualLinearScanTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        container.start();
+        for (int level = 1; level <= 6; level++) {
+            container.step();
+        }
+        KochSegmentTree tree = container.getSegmentTree();
+        LatticePointArray vertices = container.getVertices();
+        assertSame(tree, container.getSegmentTree());
+        Random random = new Random(242L);
+        for (int n = 0; n < 200; n++) {
+            double x = random.nextDouble() * 960;
+            double y = random.nextDouble() * 702;
+            double nearest = Double.POSITIVE_INFINITY;
+            int within = 0;
+            for (int i = 0; i < vertices.getSize(); i++) {
+                double distance = tree.distanceSquared(i, x, y);
+                nearest = Math.min(nearest, distance);
+                if (distance <= 25.0d) {
+                    within++;
+                }
+            }
+            assertEquals(nearest, tree.distanceSquared(tree.nearestSegment(x, y), x, y), 1e-9);
+            assertEquals(within, tree.segmentsWithinRadius(x, y, 5.0d).length);
+        }
+        int[] all = tree.segmentsInRectangle(LatticeRectangle.of(0, 0, 960, 702));
+        assertEquals(vertices.getSize(), all.length);
+        int[] none = tree.segmentsInRectangle(LatticeRectangle.of(0, 0, 10, 10));
+        assertEquals(0, none.length);
+        log.info("queriesEqualLinearScanTest done");
+    }
+}
@@ -0,0 +1,346 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePoint;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeSegmentArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.MappedLatticePointArray;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class KochSubdivisionTest {
+
+    private LinkedListNodeContainer startedContainer() {
+        LinkedListNodeContainer container = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        container.start();
+        return container;
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void stepMultipliesVerticesByFourTest() {
+        log.info("stepMultipliesVerticesByFourTest start");
+        LinkedListNodeContainer container = startedContainer();
+        assertEquals(3, container.getVertices().getSize());
+        for (int level = 1; level <= 6; level++) {
+            container.step();
+            assertEquals(level, container.getLevel());
+            assertEquals(3 * (1 << (2 * level)), container.getVertices().getSize());
+        }
+        log.info("stepMultipliesVerticesByFourTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void sameNewPointsAsLatticePointTest() {
+        log.info("sameNewPointsAsLatticePointTest start");
+        LinkedListNodeContainer container = startedContainer();
+        container.step();
+        container.step();
+        LatticePointArray level = container.getVertices();
+        LatticePointArray nextLevel = KochSubdivision.subdivide(level);
+        for (int i = 0; i < level.getSize(); i++) {
+            LatticePoint[] newPoints = level.getLatticePoint(i).getNewPoints(level.getLatticePoint(level.next(i)));
+            for (int k = 0; k < 4; k++) {
+                assertEquals(newPoints[k], nextLevel.getLatticePoint(4 * i + k));
+            }
+        }
+        log.info("sameNewPointsAsLatticePointTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void parallelStepEqualsSequentialStepTest() {
+        log.info("parallelStepEqualsSequentialStepTest start");
+        LinkedListNodeContainer container = startedContainer();
+        for (int level = 1; level <= 5; level++) {
+            container.step();
+        }
+        LatticePointArray sequential = KochSubdivision.subdivide(container.getVertices());
+        LatticePointArray parallel = KochSubdivisionTask.subdivide(container.getVertices(), 16, KochSubdivisionKernel.SCALAR);
+        assertArrayEquals(sequential.getX(), parallel.getX());
+        assertArrayEquals(sequential.getY(), parallel.getY());
+        log.info("parallelStepEqualsSequentialStepTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void mappedStepEqualsStepTest(@TempDir Path scratchDirectory) throws IOException {
+        log.info("mappedStepEqualsStepTest start");
+        LinkedListNodeContainer container = startedContainer();
+        KochSubdivisionKernel kernel = KochSubdivision.kernel("vector");
+        try (MappedKochLevels mappedLevels = new MappedKochLevels(scratchDirectory, 64, kernel)) {
+            assertSame(kernel, mappedLevels.getKernel());
+            mappedLevels.start(container.getVertices());
+            for (int level = 1; level <= 5; level++) {
+                container.step();
+                mappedLevels.step();
+            }
+            LatticePointArray vertices = container.getVertices();
+            MappedLatticePointArray mappedVertices = mappedLevels.getVertices();
+            assertEquals(vertices.getSize(), mappedVertices.getSize());
+            for (int i = 0; i < vertices.getSize(); i++) {
+                assertEquals(vertices.getX(i), mappedVertices.getX(i));
+                assertEquals(vertices.getY(i), mappedVertices.getY(i));
+            }
+        }
+        try (var files = Files.list(scratchDirectory)) {
+            assertEquals(0L, files.count());
+        }
+        log.info("mappedStepEqualsStepTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void exactGeometryHasUnitSegmentsTest() {
+        log.info("exactGeometryHasUnitSegmentsTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        container.setExactGeometry(true);
+        container.start();
+        for (int level = 1; level <= 6; level++) {
+            container.step();
+        }
+        LatticePointArray eisenstein = container.getEisensteinVertices();
+        assertEquals(3 * 4096, eisenstein.getSize());
+        for (int i = 0; i < eisenstein.getSize(); i++) {
+            int j = eisenstein.next(i);
+            int da = eisenstein.getX(j) - eisenstein.getX(i);
+            int db = eisenstein.getY(j) - eisenstein.getY(i);
+            assertEquals(1, da * da + da * db + db * db);
+        }
+        LatticePointArray vertices = container.getVertices();
+        assertEquals(eisenstein.getSize(), vertices.getSize());
+        assertEquals(container.getVertexLookup().getSeed().getLatticePoint(0), vertices.getLatticePoint(0));
+        assertTrue(3L << (2 * EisensteinSubdivision.MAX_LEVEL) <= Integer.MAX_VALUE - 8);
+        assertTrue(3L << (2 * EisensteinSubdivision.MAX_LEVEL + 2) > Integer.MAX_VALUE - 8);
+        log.info("exactGeometryHasUnitSegmentsTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void vectorKernelEqualsScalarKernelTest() {
+        log.info("vectorKernelEqualsScalarKernelTest start");
+        KochSubdivisionKernel kernel = KochSubdivision.kernel("vector");
+        assumeTrue(kernel instanceof VectorKochSubdivision, "run with --add-modules jdk.incubator.vector");
+        LinkedListNodeContainer container = startedContainer();
+        for (int level = 1; level <= 6; level++) {
+            LatticePointArray sequential = KochSubdivision.subdivide(container.getVertices());
+            LatticePointArray vector = KochSubdivisionTask.subdivide(container.getVertices(), 64, kernel);
+            assertArrayEquals(sequential.getX(), vector.getX());
+            assertArrayEquals(sequential.getY(), vector.getY());
+            container.step();
+        }
+        log.info("vectorKernelEqualsScalarKernelTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void levelOfDetailStopsBelowToleranceTest() {
+        log.info("levelOfDetailStopsBelowToleranceTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        container.setLevelOfDetail(true);
+        container.setPixelTolerance(2.0d);
+        container.start();
+        for (int level = 1; level <= 12; level++) {
+            container.step();
+        }
+        LatticePointArray vertices = container.getVertices();
+        assertTrue(vertices.getSize() < container.getVertexLookup().vertexCount(12));
+        for (int i = 0; i < vertices.getSize(); i++) {
+            int j = vertices.next(i);
+            double dx = vertices.getX(j) - vertices.getX(i);
+            double dy = vertices.getY(j) - vertices.getY(i);
+            assertTrue(Math.sqrt(dx * dx + dy * dy) <= 2.0d + 1.5d);
+        }
+        container.step();
+        assertEquals(vertices.getSize(), container.getVertices().getSize());
+        log.info("levelOfDetailStopsBelowToleranceTest done: " + vertices.getSize());
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void levelOfDetailRefinesForTheOutputSizeTest() {
+        log.info("levelOfDetailRefinesForTheOutputSizeTest start");
+        LatticeRectangle world = LatticeRectangle.of(0, 0, 960, 702);
+        assertEquals(1.0d, LinkedListNodeContainer.pixelsPerUnit(world, 960, 702));
+        assertEquals(4.0d, LinkedListNodeContainer.pixelsPerUnit(world, 3840, 2808));
+        assertEquals(10.0d, LinkedListNodeContainer.pixelsPerUnit(LatticeRectangle.of(250, 320, 96, 70), 960, 700));
+        int[] sizes = new int[2];
+        double[] pixelsPerUnit = {1.0d, 4.0d};
+        for (int k = 0; k < 2; k++) {
+            LinkedListNodeContainer container = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+            container.setLevelOfDetail(true);
+            container.setPixelsPerUnit(pixelsPerUnit[k]);
+            container.start();
+            for (int level = 1; level <= 8; level++) {
+                container.step();
+            }
+            sizes[k] = container.getVertices().getSize();
+        }
+        assertTrue(sizes[1] > sizes[0]);
+        log.info("levelOfDetailRefinesForTheOutputSizeTest done: " + sizes[0] + " " + sizes[1]);
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void progressiveStepPublishesAllSegmentsTest() {
+        log.info("progressiveStepPublishesAllSegmentsTest start");
+        LinkedListNodeContainer sequential = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        LinkedListNodeContainer progressive = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        sequential.start();
+        progressive.start();
+        for (int level = 1; level <= 7; level++) {
+            sequential.step();
+            int[] notified = new int[1];
+            KochLevelChunks chunks = new KochLevelChunks(level, () -> notified[0]++);
+            KochLevel base = progressive.getSnapshot();
+            assertTrue(progressive.publish(base, progressive.computeNext(base, chunks)));
+            assertTrue(chunks.isComplete());
+            assertEquals(level, progressive.getLevel());
+            LatticePointArray expected = sequential.getVertices();
+            assertArrayEquals(expected.getX(), progressive.getVertices().getX());
+            assertArrayEquals(expected.getY(), progressive.getVertices().getY());
+            int segments = 0;
+            int chunkCount = 0;
+            for (LatticeSegmentArray chunk = chunks.poll(); chunk != null; chunk = chunks.poll()) {
+                for (int i = 0; i < chunk.getSize(); i++) {
+                    int index = (int) chunk.getIndex(i);
+                    assertEquals(segments, index);
+                    assertEquals(expected.getX(index), chunk.getX1(i));
+                    assertEquals(expected.getY(expected.next(index)), chunk.getY2(i));
+                    segments++;
+                }
+                chunkCount++;
+            }
+            assertEquals(expected.getSize(), segments);
+            assertEquals(chunkCount + 1, notified[0]);
+        }
+        log.info("progressiveStepPublishesAllSegmentsTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void snapshotNeverTearsWhileSteppingTest() throws InterruptedException {
+        log.info("snapshotNeverTearsWhileSteppingTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        container.start();
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicInteger torn = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                KochLevel level = container.getSnapshot();
+                if (level.getVertices().getSize() != 3 * (1 << (2 * level.getLevel()))) {
+                    torn.incrementAndGet();
+                }
+                reads.incrementAndGet();
+            }
+        });
+        reader.start();
+        for (int round = 0; round < 20; round++) {
+            container.start();
+            for (int level = 1; level <= 7; level++) {
+                container.step();
+            }
+        }
+        done.set(true);
+        reader.join();
+        assertEquals(0, torn.get());
+        assertTrue(reads.get() > 0);
+        log.info("snapshotNeverTearsWhileSteppingTest done: " + reads.get());
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void cancelledStepKeepsTheSnapshotTest() {
+        log.info("cancelledStepKeepsTheSnapshotTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        container.start();
+        for (int level = 1; level <= 6; level++) {
+            container.step();
+        }
+        KochLevel base = container.getSnapshot();
+        KochLevelChunks cancelled = new KochLevelChunks(7, () -> { }, false, 0L);
+        cancelled.cancel();
+        assertThrows(CancellationException.class, () -> container.computeNext(base, cancelled));
+        AtomicInteger calls = new AtomicInteger();
+        KochLevelChunks budget = new KochLevelChunks(7, () -> {
+            if (calls.incrementAndGet() == 1) {
+                LockSupport.parkNanos(5000000L);
+            }
+        }, false, 1L);
+        assertThrows(CancellationException.class, () -> container.computeNext(base, budget));
+        assertTrue(budget.isCancelled());
+        assertSame(base, container.getSnapshot());
+        KochLevel next = container.computeNext(base, new KochLevelChunks(7, () -> { }, false, 0L));
+        assertSame(base, container.getSnapshot());
+        container.step();
+        assertFalse(container.publish(base, next));
+        assertEquals(7, container.getLevel());
+        container.start();
+        KochLevel start = container.getSnapshot();
+        KochLevel first = container.computeNext(start, new KochLevelChunks(1, () -> { }));
+        assertTrue(container.publish(start, first));
+        assertSame(first, container.getSnapshot());
+        log.info("cancelledStepKeepsTheSnapshotTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void timeBudgetStartsWithTheComputationTest() {
+        log.info("timeBudgetStartsWithTheComputationTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        container.start();
+        KochLevel base = container.getSnapshot();
+        KochLevelChunks chunks = new KochLevelChunks(1, () -> { }, false, 100L);
+        LockSupport.parkNanos(150000000L);
+        KochLevel next = container.computeNext(base, chunks);
+        assertEquals(1, next.getLevel());
+        assertTrue(chunks.isComplete());
+        assertFalse(chunks.isCancelled());
+        log.info("timeBudgetStartsWithTheComputationTest done");
+    }
+}
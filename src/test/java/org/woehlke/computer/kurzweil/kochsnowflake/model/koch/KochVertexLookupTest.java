@@ -0,0 +1,100 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.koch;
+
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeSegmentArray;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class KochVertexLookupTest {
+
+    /**
+     * run Test
+     */
+    @Test
+    public void lookupFollowsStepTest() {
+        log.info("lookupFollowsStepTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        container.start();
+        KochVertexLookup lookup = container.getVertexLookup();
+        double[] segment = new double[4];
+        for (int level = 0; level <= 4; level++) {
+            LatticePointArray vertices = container.getVertices();
+            assertEquals(vertices.getSize(), lookup.vertexCount(level));
+            for (int i = 0; i < vertices.getSize(); i++) {
+                lookup.segmentAt(level, i, segment);
+                assertEquals(vertices.getX(i), segment[0], 2.0 * level + 0.5);
+                assertEquals(vertices.getY(i), segment[1], 2.0 * level + 0.5);
+            }
+            container.step();
+        }
+        log.info("lookupFollowsStepTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void bulkLookupEqualsSingleLookupTest() {
+        log.info("bulkLookupEqualsSingleLookupTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        container.start();
+        KochVertexLookup lookup = container.getVertexLookup();
+        int level = 7;
+        long from = 1000L;
+        int count = 3 * 4096;
+        double[] x = new double[count];
+        double[] y = new double[count];
+        lookup.vertices(level, from, count, x, y);
+        double[] segment = new double[4];
+        for (int n = 0; n < count; n++) {
+            lookup.segmentAt(level, from + n, segment);
+            assertEquals(segment[0], x[n], 1e-9);
+            assertEquals(segment[1], y[n], 1e-9);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> lookup.segmentAt(level, lookup.vertexCount(level), segment));
+        log.info("bulkLookupEqualsSingleLookupTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void viewportSubdivisionKeepsVisibleSegmentsTest() {
+        log.info("viewportSubdivisionKeepsVisibleSegmentsTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        container.start();
+        KochVertexLookup lookup = container.getVertexLookup();
+        LatticeRectangle viewport = LatticeRectangle.of(250, 320, 96, 70);
+        int level = 8;
+        LatticeSegmentArray visible = container.getViewportSubdivision().visibleSegments(level, viewport);
+        Set<Long> indices = new HashSet<>();
+        for (int i = 0; i < visible.getSize(); i++) {
+            indices.add(visible.getIndex(i));
+        }
+        double[] segment = new double[4];
+        int inside = 0;
+        for (long i = 0; i < lookup.vertexCount(level); i++) {
+            lookup.segmentAt(level, i, segment);
+            if (segment[0] >= 250 && segment[0] <= 346 && segment[1] >= 320 && segment[1] <= 390) {
+                inside++;
+                assertTrue(indices.contains(i), "visible Segment " + i + " dropped");
+            }
+        }
+        assertTrue(inside > 0);
+        assertTrue(visible.getSize() < lookup.vertexCount(level) / 4);
+        log.info("viewportSubdivisionKeepsVisibleSegmentsTest done: " + visible.getSize() + " of " + lookup.vertexCount(level));
+    }
+}
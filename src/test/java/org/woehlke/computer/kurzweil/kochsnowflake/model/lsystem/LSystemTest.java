@@ -0,0 +1,105 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.model.lsystem;
+
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class LSystemTest {
+
+    private ComputerKurzweilProperties.Kochsnowflake.Lsystem definition(
+        String axiom, String rule, double angle, double lengthFactor
+    ) {
+        ComputerKurzweilProperties.Kochsnowflake.Lsystem definition = new ComputerKurzweilProperties.Kochsnowflake.Lsystem();
+        definition.setAxiom(axiom);
+        definition.setRules(Map.of("F", rule));
+        definition.setAngle(angle);
+        definition.setLengthFactor(lengthFactor);
+        return definition;
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void snowflakeEqualsExactGeometryTest() {
+        log.info("snowflakeEqualsExactGeometryTest start");
+        LSystem snowflake = LSystem.compile("snowflake", definition("F--F--F", "F+F--F+F", 60.0, 1.0 / 3.0));
+        assertEquals(6, snowflake.getDirections());
+        LinkedListNodeContainer exact = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        exact.setExactGeometry(true);
+        exact.start();
+        LinkedListNodeContainer lsystem = new LinkedListNodeContainer(null, LatticeDimension.of(960, 702));
+        lsystem.setLsystem(snowflake);
+        lsystem.start();
+        for (int level = 1; level <= 5; level++) {
+            exact.step();
+            lsystem.step();
+            assertEquals(3L << (2 * level), snowflake.segmentCount(level));
+            LatticePointArray expected = exact.getVertices();
+            LatticePointArray actual = lsystem.getVertices();
+            assertEquals(expected.getSize(), actual.getSize());
+            for (int i = 0; i < expected.getSize(); i++) {
+                assertEquals(expected.getX(i), actual.getX(i), 1);
+                assertEquals(expected.getY(i), actual.getY(i), 1);
+            }
+        }
+        log.info("snowflakeEqualsExactGeometryTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void closedCurvesReturnToStartTest() {
+        log.info("closedCurvesReturnToStartTest start");
+        ComputerKurzweilProperties.Kochsnowflake.Lsystem cesaro = definition("F-F-F-F", "F-F++F-F", 85.0, 0.4599);
+        cesaro.setAxiomAngle(90.0);
+        LSystem[] lsystems = {
+            LSystem.compile("snowflake", definition("F--F--F", "F+F--F+F", 60.0, 1.0 / 3.0)),
+            LSystem.compile("quadratic", definition("F-F-F-F", "F+F-F-FF+F+F-F", 90.0, 0.25)),
+            LSystem.compile("cesaro", cesaro),
+            LSystem.compile("levy", definition("F--F--F--F", "+F--F+", 45.0, Math.sqrt(0.5)))
+        };
+        for (LSystem lsystem : lsystems) {
+            for (int depth = 0; depth <= 4; depth++) {
+                assertTrue(closingGap(lsystem, depth) < 1e-6, lsystem.getName() + " at depth " + depth);
+            }
+        }
+        LSystem open = LSystem.compile("cesaro", definition("F-F-F-F", "F-F++F-F", 85.0, 0.4599));
+        assertTrue(closingGap(open, 4) > 1.0, "one Angle for Axiom and Rules does not close");
+        log.info("closedCurvesReturnToStartTest done");
+    }
+
+    /**
+     * @return how far the Segment from the last Vertex back to the Start is from one Step, in Steps
+     */
+    private static double closingGap(LSystem lsystem, int depth) {
+        double step = Math.pow(lsystem.getLengthFactor(), depth);
+        double[] first = {Double.NaN, Double.NaN};
+        double[] last = new double[2];
+        lsystem.expand(depth, 0.0, 0.0, 1.0, (x, y) -> {
+            if (Double.isNaN(first[0])) {
+                first[0] = x;
+                first[1] = y;
+            }
+            last[0] = x;
+            last[1] = y;
+        });
+        assertEquals(0.0, first[0], 1e-12, lsystem.getName());
+        assertEquals(0.0, first[1], 1e-12, lsystem.getName());
+        return Math.abs(Math.hypot(last[0], last[1]) - step) / step;
+    }
+}
@@ -0,0 +1,70 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.canvas;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.woehlke.computer.kurzweil.kochsnowflake.config.ComputerKurzweilProperties;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.KochSnowflakeModel;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class KochSnowflakeCanvasTest {
+
+    /**
+     * run Test
+     */
+    @Test
+    public void pickedSegmentIsHighlightedTest() throws IOException {
+        log.info("pickedSegmentIsHighlightedTest start");
+        ComputerKurzweilProperties config;
+        try (InputStream input = getClass().getResourceAsStream("/application.yml")) {
+            config = new ObjectMapper(new YAMLFactory()).readValue(input, ComputerKurzweilProperties.class);
+        }
+        KochSnowflakeModel model = new KochSnowflakeModel(config);
+        model.start();
+        model.step();
+        model.step();
+        KochSnowflakeCanvas canvas = new KochSnowflakeCanvas(model, config);
+        int width = model.getWorldDimensions().getWidth();
+        int height = model.getWorldDimensions().getHeight();
+        BufferedImage offscreen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = offscreen.createGraphics();
+        LatticePointArray vertices = model.getLinkedListNodeContainer().getVertices();
+        int segment = 5;
+        int next = vertices.next(segment);
+        int x = (vertices.getX(segment) + vertices.getX(next)) / 2;
+        int y = (vertices.getY(segment) + vertices.getY(next)) / 2;
+        canvas.paint(g);
+        assertNotEquals(Color.WHITE.getRGB(), offscreen.getRGB(x, y));
+        long generation = model.getGeneration();
+        assertEquals(segment, model.pickSegment(x, y, 4.0d));
+        assertEquals(generation + 1, model.getGeneration());
+        assertSame(model.getLinkedListNodeContainer().getSnapshot(), model.getSelectedLevel());
+        assertEquals(segment, model.pickSegment(x, y, 4.0d));
+        assertEquals(generation + 1, model.getGeneration());
+        canvas.paint(g);
+        assertEquals(Color.WHITE.getRGB(), offscreen.getRGB(x, y));
+        assertEquals(-1, model.pickSegment(5, 5, 4.0d));
+        assertEquals(generation + 2, model.getGeneration());
+        canvas.paint(g);
+        assertNotEquals(Color.WHITE.getRGB(), offscreen.getRGB(x, y));
+        assertEquals(segment, model.pickSegment(x, y, 4.0d));
+        model.step();
+        assertEquals(-1, model.getSelectedSegment());
+        g.dispose();
+        log.info("pickedSegmentIsHighlightedTest done");
+    }
+}
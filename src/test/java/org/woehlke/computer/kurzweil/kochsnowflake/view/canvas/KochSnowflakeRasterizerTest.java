@@ -0,0 +1,68 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.canvas;
+
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class KochSnowflakeRasterizerTest {
+
+    private static final Color[] COLORS = {Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW};
+
+    /**
+     * run Test
+     */
+    @Test
+    public void sameImageAsJava2DTest() {
+        log.info("sameImageAsJava2DTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(LatticeDimension.of(960, 702));
+        container.start();
+        KochSnowflakeRasterizer rasterizer = new KochSnowflakeRasterizer();
+        LatticeRectangle[] viewports = {
+            LatticeRectangle.of(0, 0, 960, 702),
+            LatticeRectangle.of(-40, 25, 960, 702)
+        };
+        for (int level = 0; level <= 7; level++) {
+            LatticePointArray vertices = container.getVertices();
+            for (LatticeRectangle viewport : viewports) {
+                BufferedImage expected = drawLines(vertices, viewport);
+                BufferedImage actual = rasterizer.render(vertices, viewport, 960, 702);
+                for (int y = 0; y < expected.getHeight(); y++) {
+                    for (int x = 0; x < expected.getWidth(); x++) {
+                        assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "Level " + level + " at " + x + "," + y);
+                    }
+                }
+            }
+            container.step();
+        }
+        log.info("sameImageAsJava2DTest done");
+    }
+
+    private static BufferedImage drawLines(LatticePointArray vertices, LatticeRectangle viewport) {
+        BufferedImage image = new BufferedImage(960, 702, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.translate(-viewport.getStart().getX(), -viewport.getStart().getY());
+        for (int i = 0; i < vertices.getSize(); i++) {
+            int j = vertices.next(i);
+            g.setColor(COLORS[i % 4]);
+            g.drawLine(vertices.getX(i), vertices.getY(i), vertices.getX(j), vertices.getY(j));
+        }
+        g.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,95 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.canvas;
+
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticePointArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeSegmentArray;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class KochSnowflakeRendererTest {
+
+    private static final Color[] COLORS = {Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW};
+
+    /**
+     * run Test
+     */
+    @Test
+    public void sameImageAsDrawLineSegmentBySegmentTest() {
+        log.info("sameImageAsDrawLineSegmentBySegmentTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(LatticeDimension.of(960, 702));
+        container.start();
+        KochSnowflakeRenderer renderer = new KochSnowflakeRenderer();
+        LatticeRectangle[] viewports = {
+            LatticeRectangle.of(0, 0, 960, 702),
+            LatticeRectangle.of(-40, 25, 960, 702),
+            LatticeRectangle.of(100, 200, 320, 234)
+        };
+        for (int level = 0; level <= 7; level++) {
+            LatticePointArray vertices = container.getVertices();
+            for (LatticeRectangle viewport : viewports) {
+                assertSameImage(drawLines(vertices, viewport), renderer.render(vertices, viewport, 960, 702), level);
+                LatticeSegmentArray segments = container.getVisibleSegments(viewport);
+                assertSameImage(drawLines(segments, viewport), renderer.render(segments, viewport, 960, 702), level);
+            }
+            container.step();
+        }
+        log.info("sameImageAsDrawLineSegmentBySegmentTest done");
+    }
+
+    private static void assertSameImage(BufferedImage expected, BufferedImage actual, int level) {
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "Level " + level + " at " + x + "," + y);
+            }
+        }
+    }
+
+    private static BufferedImage drawLines(LatticePointArray vertices, LatticeRectangle viewport) {
+        BufferedImage image = new BufferedImage(960, 702, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = world(image, viewport);
+        for (int i = 0; i < vertices.getSize(); i++) {
+            int j = vertices.next(i);
+            g.setColor(COLORS[i % 4]);
+            g.drawLine(vertices.getX(i), vertices.getY(i), vertices.getX(j), vertices.getY(j));
+        }
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage drawLines(LatticeSegmentArray segments, LatticeRectangle viewport) {
+        BufferedImage image = new BufferedImage(960, 702, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = world(image, viewport);
+        for (int i = 0; i < segments.getSize(); i++) {
+            g.setColor(COLORS[(int) (segments.getIndex(i) % 4)]);
+            g.drawLine(segments.getX1(i), segments.getY1(i), segments.getX2(i), segments.getY2(i));
+        }
+        g.dispose();
+        return image;
+    }
+
+    private static Graphics2D world(BufferedImage image, LatticeRectangle viewport) {
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        int width = viewport.getDimension().getWidth();
+        int height = viewport.getDimension().getHeight();
+        if (width != image.getWidth() || height != image.getHeight()) {
+            g.scale(((double) image.getWidth()) / width, ((double) image.getHeight()) / height);
+        }
+        g.translate(-viewport.getStart().getX(), -viewport.getStart().getY());
+        return g;
+    }
+}
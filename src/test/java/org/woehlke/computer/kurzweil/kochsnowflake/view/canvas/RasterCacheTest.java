@@ -0,0 +1,100 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.canvas;
+
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class RasterCacheTest {
+
+    /**
+     * 400 Bytes per Image.
+     */
+    private static RasterCacheKey key(int level) {
+        return new RasterCacheKey(level, 10, 10, LatticeRectangle.of(0, 0, 10, 10));
+    }
+
+    private static BufferedImage image() {
+        return new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void leastRecentlyUsedIsEvictedTest() {
+        log.info("leastRecentlyUsedIsEvictedTest start");
+        RasterCache cache = new RasterCache(1000L);
+        BufferedImage first = image();
+        BufferedImage second = image();
+        BufferedImage third = image();
+        cache.put(key(1), first);
+        cache.put(key(2), second);
+        assertSame(first, cache.get(key(1)));
+        cache.put(key(3), third);
+        assertNull(cache.get(key(2)));
+        assertSame(first, cache.get(key(1)));
+        assertSame(third, cache.get(key(3)));
+        assertEquals(800L, cache.getUsedBytes());
+        log.info("leastRecentlyUsedIsEvictedTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void budgetIsNeverExceededTest() {
+        log.info("budgetIsNeverExceededTest start");
+        RasterCache cache = new RasterCache(1000L);
+        for (int level = 0; level < 10; level++) {
+            cache.put(key(level), image());
+            assertTrue(cache.getUsedBytes() <= cache.getBudgetBytes());
+        }
+        assertEquals(800L, cache.getUsedBytes());
+        cache.put(key(1), image());
+        assertEquals(800L, cache.getUsedBytes());
+        RasterCache small = new RasterCache(399L);
+        small.put(key(0), image());
+        assertNull(small.get(key(0)));
+        assertEquals(0L, small.getUsedBytes());
+        cache.clear();
+        assertEquals(0L, cache.getUsedBytes());
+        assertNull(cache.get(key(9)));
+        log.info("budgetIsNeverExceededTest done");
+    }
+
+    /**
+     * run Test
+     */
+    @Test
+    public void clearedReferencesAreEvictedTest() {
+        log.info("clearedReferencesAreEvictedTest start");
+        RasterCache cache = new RasterCache(10000L);
+        SoftReference<BufferedImage> first = new SoftReference<>(image());
+        SoftReference<BufferedImage> second = new SoftReference<>(image());
+        cache.put(key(1), first);
+        cache.put(key(2), second);
+        assertEquals(800L, cache.getUsedBytes());
+        first.clear();
+        assertNull(cache.get(key(1)));
+        assertEquals(400L, cache.getUsedBytes());
+        second.clear();
+        BufferedImage third = image();
+        cache.put(key(3), third);
+        assertEquals(400L, cache.getUsedBytes());
+        assertSame(third, cache.get(key(3)));
+        assertNull(cache.get(key(2)));
+        assertEquals(400L, cache.getUsedBytes());
+        log.info("clearedReferencesAreEvictedTest done");
+    }
+}
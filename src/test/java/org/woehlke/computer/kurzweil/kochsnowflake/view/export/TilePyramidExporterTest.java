@@ -0,0 +1,50 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.export;
+
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class TilePyramidExporterTest {
+
+    /**
+     * run Test
+     */
+    @Test
+    public void pyramidIsResumedTest(@TempDir Path scratch) throws IOException {
+        log.info("pyramidIsResumedTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(LatticeDimension.of(960, 702));
+        container.start();
+        TilePyramidExporter exporter = new TilePyramidExporter(3);
+        long written = exporter.export(container.getVertexLookup().getSeed(), container.getWorldDimensions(), 8, 2, scratch);
+        assertEquals(1 + 4 + 16, written);
+        BufferedImage top = ImageIO.read(scratch.resolve("0").resolve("0").resolve("0.png").toFile());
+        assertEquals(TilePyramidExporter.TILE, top.getWidth());
+        boolean drawn = false;
+        for (int y = 0; y < top.getHeight() && !drawn; y++) {
+            for (int x = 0; x < top.getWidth() && !drawn; x++) {
+                drawn = top.getRGB(x, y) != Color.BLACK.getRGB();
+            }
+        }
+        assertTrue(drawn);
+        Files.delete(scratch.resolve("2").resolve("3").resolve("1.png"));
+        assertEquals(1, exporter.export(container.getVertexLookup().getSeed(), container.getWorldDimensions(), 8, 2, scratch));
+        log.info("pyramidIsResumedTest done");
+    }
+}
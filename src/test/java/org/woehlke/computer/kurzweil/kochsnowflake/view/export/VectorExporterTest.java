@@ -0,0 +1,58 @@
+package org.woehlke.computer.kurzweil.kochsnowflake.view.export;
+
+import lombok.extern.java.Log;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeDimension;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.geometry.LatticeRectangle;
+import org.woehlke.computer.kurzweil.kochsnowflake.model.koch.LinkedListNodeContainer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * (C) 2006 - 2023 Thomas Woehlke.
+ *
+ * @author Thomas Woehlke
+ */
+@Log
+public class VectorExporterTest {
+
+    /**
+     * run Test
+     */
+    @Test
+    public void compactPathReturnsToStartTest(@TempDir Path scratch) throws IOException {
+        log.info("compactPathReturnsToStartTest start");
+        LinkedListNodeContainer container = new LinkedListNodeContainer(LatticeDimension.of(960, 702));
+        container.start();
+        container.step();
+        container.step();
+        LatticeRectangle viewport = LatticeRectangle.of(0, 0, 960, 702);
+        Path absolute = scratch.resolve("absolute.svg");
+        Path compact = scratch.resolve("compact.svg");
+        new VectorExporter(VectorExporter.Format.SVG, false, 0).export(container.getVertices(), viewport, 960, 702, absolute);
+        new VectorExporter(VectorExporter.Format.SVG, true, 0).export(container.getVertices(), viewport, 960, 702, compact);
+        assertTrue(Files.size(compact) < Files.size(absolute));
+        String path = Files.readString(compact);
+        path = path.substring(path.indexOf("d=\"M") + 4, path.indexOf("z\"/>"));
+        String[] numbers = path.replace("l", " ").replace("-", " -").trim().split("\\s+");
+        assertEquals(2 * container.getVertices().getSize(), numbers.length);
+        long x = 0;
+        long y = 0;
+        for (int n = 0; n < numbers.length; n += 2) {
+            x += Long.parseLong(numbers[n]);
+            y += Long.parseLong(numbers[n + 1]);
+            int vertex = n / 2;
+            assertEquals(container.getVertices().getX(vertex), x);
+            assertEquals(container.getVertices().getY(vertex), y);
+        }
+        Path eps = scratch.resolve("koch.eps");
+        new VectorExporter(VectorExporter.Format.EPS, true, 2).export(container.getVertexLookup(), 5, viewport, 960, 702, eps);
+        assertTrue(Files.readString(eps).endsWith("showpage\n%%EOF\n"));
+        log.info("compactPathReturnsToStartTest done");
+    }
+}